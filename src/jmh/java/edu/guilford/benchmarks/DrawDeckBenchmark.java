@@ -0,0 +1,67 @@
+package edu.guilford.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.DrawDeck;
+
+/**
+ * Measures rebuilding and shuffling the draw deck at the start of a round.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DrawDeckBenchmark {
+
+    /** Whether the deck shuffles lazily as cards are drawn. */
+    @Param({"false", "true"})
+    public boolean lazyShuffle;
+
+    private DrawDeck deck;
+
+    @Setup
+    public void setup() {
+        deck = new DrawDeck(new SplittableRandom(31));
+        deck.setLazyShuffle(lazyShuffle);
+    }
+
+    @Benchmark
+    public DrawDeck buildAndShuffle() {
+        deck.clear();
+        deck.build();
+        deck.shuffle();
+        return deck;
+    }
+
+    /**
+     * Builds, shuffles and deals a five-player round plus the first discard and a few draws.
+     */
+    @Benchmark
+    public Card buildShuffleAndDeal() {
+        deck.clear();
+        deck.build();
+        deck.shuffle();
+        deck.deal(5, 3);
+        Card card = deck.poll();
+        for (int i = 0; i < 10; i++) {
+            card = deck.poll();
+        }
+        return card;
+    }
+}
@@ -0,0 +1,68 @@
+package edu.guilford.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.playerModels.Group;
+
+/**
+ * Measures whole rounds and whole games for each model mix used by ThirtyOneDriver.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"TEST_VS_BASIC", "BASIC_VS_ADVANCED"})
+    public ModelMix mix;
+
+    private Group group;
+    private ThirtyOneGame game;
+
+    @Setup
+    public void setup() {
+        newGame();
+    }
+
+    /**
+     * Plays one round, starting a new game whenever the current one has a winner.
+     */
+    @Benchmark
+    public Group playRound() {
+        if (group.playersRemaining() <= 1) {
+            newGame();
+        }
+        game.playRound();
+        return group;
+    }
+
+    /**
+     * Plays a complete game on a freshly created group, as the driver's campaigns do.
+     */
+    @Benchmark
+    public int playGame() {
+        Group players = mix.newGroup();
+        new ThirtyOneGame(players).playGame();
+        return players.getWinner();
+    }
+
+    private void newGame() {
+        group = mix.newGroup();
+        game = new ThirtyOneGame(group);
+    }
+}
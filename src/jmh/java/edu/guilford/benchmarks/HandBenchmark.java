@@ -0,0 +1,63 @@
+package edu.guilford.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.Hand;
+
+/**
+ * Measures reading the value of a hand and the add/remove cycle of a turn.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandBenchmark {
+
+    private final Hand[] hands = new Hand[64];
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(31);
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = new Hand();
+            while (hands[i].size() < 3) {
+                Card card = Card.ofIndex(random.nextInt(Card.DECK_SIZE));
+                if (!hands[i].contains(card)) {
+                    hands[i].addCard(card);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int getTotalValue() {
+        next = (next + 1) & (hands.length - 1);
+        return hands[next].getTotalValue();
+    }
+
+    @Benchmark
+    public int addRemoveCard() {
+        next = (next + 1) & (hands.length - 1);
+        Hand hand = hands[next];
+        Card card = hand.getCard(0);
+        hand.removeCard(card);
+        hand.addCard(card);
+        return hand.getTotalValue();
+    }
+}
@@ -0,0 +1,87 @@
+package edu.guilford.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.guilford.GameListener;
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.playerModels.BasicModel;
+import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.Player;
+
+/**
+ * Measures turns per millisecond as the table grows from a single deck to several hundred
+ * players sharing many decks. The turn count is reported as a secondary result, which should
+ * stay level across the table sizes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LargeTableBenchmark {
+
+    @Param({"4", "16", "50", "200", "500"})
+    public int seats;
+
+    private Group group;
+    private ThirtyOneGame game;
+    private int lastTurns; // Turns of the last round played
+
+    /**
+     * Counts the turns played during each iteration.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Turns {
+        public long turns;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            turns = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        newGame();
+    }
+
+    /**
+     * Plays one round, starting a new game whenever the current one has a winner.
+     */
+    @Benchmark
+    public Group playRound(Turns counter) {
+        if (group.playersRemaining() <= 1) {
+            newGame();
+        }
+        game.playRound();
+        counter.turns += lastTurns;
+        return group;
+    }
+
+    private void newGame() {
+        group = new Group(BasicModel.class, seats);
+        game = new ThirtyOneGame(group, System.nanoTime());
+        game.setListener(new GameListener() {
+            @Override
+            public void roundFinished(Player knocker, Player loser, int livesLost, int turns) {
+                lastTurns = turns;
+            }
+        });
+    }
+}
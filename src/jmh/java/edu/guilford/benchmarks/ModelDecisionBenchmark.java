@@ -0,0 +1,123 @@
+package edu.guilford.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.DrawDeck;
+import edu.guilford.playerModels.AdvancedModel;
+import edu.guilford.playerModels.BasicModel;
+import edu.guilford.playerModels.FastAdvancedModel;
+import edu.guilford.playerModels.Player;
+
+/**
+ * Measures the cost of a single decision for each model, cycling through a set of seeded hands.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelDecisionBenchmark {
+
+    @Param({"BasicModel", "AdvancedModel", "FastAdvancedModel"})
+    public String model;
+
+    private static final int HANDS = 64;
+    private static final int KNOCK_TURNS = 10; // Turns asked to knock after each deal
+
+    private final Player[] threeCardPlayers = new Player[HANDS]; // Players waiting to draw
+    private final Player[] fourCardPlayers = new Player[HANDS]; // Players waiting to discard
+    private final Player[] knockPlayers = new Player[HANDS]; // Players dealt again before each run of knock decisions
+    private final Card[][] hands = new Card[HANDS][3];
+    private final Card[] discards = new Card[HANDS];
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < HANDS; i++) {
+            DrawDeck deck = new DrawDeck(new SplittableRandom(i));
+            deck.build();
+            deck.shuffle();
+
+            threeCardPlayers[i] = newPlayer();
+            fourCardPlayers[i] = newPlayer();
+            knockPlayers[i] = newPlayer();
+            for (int j = 0; j < 3; j++) {
+                Card card = deck.poll();
+                hands[i][j] = card;
+                threeCardPlayers[i].addCard(card);
+                fourCardPlayers[i].addCard(card);
+            }
+            discards[i] = deck.poll();
+            fourCardPlayers[i].addCard(discards[i]);
+        }
+    }
+
+    @Benchmark
+    public Player.Deck requestDrawLocation() {
+        next = (next + 1) & (HANDS - 1);
+        return threeCardPlayers[next].requestDrawLocation(discards[next]);
+    }
+
+    @Benchmark
+    public Card requestDiscardCard() {
+        next = (next + 1) & (HANDS - 1);
+        return fourCardPlayers[next].requestDiscardCard();
+    }
+
+    /**
+     * Deals a player again and asks it to knock on turns 1 to 10, taking back each knock so the round goes on.
+     * The deal is shared by the ten decisions; dealKnockPlayer measures it alone so it can be subtracted.
+     */
+    @Benchmark
+    @OperationsPerInvocation(KNOCK_TURNS)
+    public int requestKnock() {
+        Player player = dealKnockPlayer();
+        int knocks = 0;
+        for (int turn = 1; turn <= KNOCK_TURNS; turn++) {
+            if (player.requestKnock()) {
+                knocks++;
+            }
+            player.setKnock(false);
+        }
+        return knocks;
+    }
+
+    /**
+     * Deals the next knock player its hand again, the overhead included in each requestKnock batch.
+     */
+    @Benchmark
+    public Player dealKnockPlayer() {
+        next = (next + 1) & (HANDS - 1);
+        Player player = knockPlayers[next];
+        player.clearHand();
+        for (Card card : hands[next]) {
+            player.addCard(card);
+        }
+        return player;
+    }
+
+    private Player newPlayer() {
+        return switch (model) {
+            case "BasicModel" -> new BasicModel();
+            case "AdvancedModel" -> new AdvancedModel();
+            case "FastAdvancedModel" -> new FastAdvancedModel();
+            default -> throw new IllegalArgumentException("Unknown model: " + model);
+        };
+    }
+}
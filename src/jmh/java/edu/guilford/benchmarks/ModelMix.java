@@ -0,0 +1,44 @@
+package edu.guilford.benchmarks;
+
+import edu.guilford.playerModels.AdvancedModel;
+import edu.guilford.playerModels.BasicModel;
+import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.TestModel;
+
+/**
+ * The table compositions used by ThirtyOneDriver's campaigns.
+ */
+public enum ModelMix {
+
+    /** Four TestModels against one BasicModel. */
+    TEST_VS_BASIC,
+
+    /** Three BasicModels against three AdvancedModels. */
+    BASIC_VS_ADVANCED;
+
+    /**
+     * Creates a fresh group of players for this composition.
+     *
+     * @return a new group
+     */
+    public Group newGroup() {
+        Group group = new Group();
+        switch (this) {
+            case TEST_VS_BASIC -> {
+                for (int i = 0; i < 4; i++) {
+                    group.addPlayer(new TestModel());
+                }
+                group.addPlayer(new BasicModel());
+            }
+            case BASIC_VS_ADVANCED -> {
+                for (int i = 0; i < 3; i++) {
+                    group.addPlayer(new BasicModel());
+                }
+                for (int i = 0; i < 3; i++) {
+                    group.addPlayer(new AdvancedModel());
+                }
+            }
+        }
+        return group;
+    }
+}
@@ -0,0 +1,62 @@
+package edu.guilford;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.DrawDeck;
+import edu.guilford.playerModels.Player;
+
+/**
+ * A GameListener is told about the events of a ThirtyOneGame as they happen.
+ * Every method does nothing by default, so listeners only override the events they need.
+ */
+public interface GameListener {
+
+    /**
+     * Called when {@link ThirtyOneGame#playGame()} starts.
+     *
+     * @param seed the game's seed
+     * @param seats the number of seats at the table
+     */
+    default void gameStarted(long seed, int seats) {}
+
+    /**
+     * Called after the draw deck has been shuffled.
+     *
+     * @param drawDeck the shuffled draw deck
+     * @param recycled {@code true} if the deck was refilled from the discard deck during a round
+     */
+    default void deckShuffled(DrawDeck drawDeck, boolean recycled) {}
+
+    /**
+     * Called when a player starts the knock sequence.
+     *
+     * @param player the knocking player
+     */
+    default void knocked(Player player) {}
+
+    /**
+     * Called after a player has drawn and discarded.
+     *
+     * @param player the player who took the turn
+     * @param drawLocation where the player drew from
+     * @param discardLocation where the player discarded to
+     * @param discardCard the card the player discarded
+     */
+    default void turnPlayed(Player player, Player.Deck drawLocation, Player.Deck discardLocation, Card discardCard) {}
+
+    /**
+     * Called after the lowest hand of a round has lost its lives. The hands still hold their final cards.
+     *
+     * @param knocker the player who started the knock sequence
+     * @param loser the player with the lowest hand
+     * @param livesLost the number of lives the loser lost, 2 if the loser is the knocker
+     * @param turns the number of turns played in the round, including the knock
+     */
+    default void roundFinished(Player knocker, Player loser, int livesLost, int turns) {}
+
+    /**
+     * Called when {@link ThirtyOneGame#playGame()} finishes.
+     *
+     * @param winner the winning seat, counted from 1, or -1 if there is no single winner
+     */
+    default void gameFinished(int winner) {}
+}
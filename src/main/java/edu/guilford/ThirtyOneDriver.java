@@ -1,12 +1,50 @@
 package edu.guilford;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
 
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.DrawDeck;
+import edu.guilford.gameObjects.Hand;
+import edu.guilford.gameObjects.HandEvaluator;
+import edu.guilford.gameObjects.Shuffler;
+import edu.guilford.metrics.Metrics;
 import edu.guilford.playerModels.AdvancedModel;
 import edu.guilford.playerModels.BasicModel;
+import edu.guilford.playerModels.CountingModel;
+import edu.guilford.playerModels.FastAdvancedModel;
 import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.MonteCarloModel;
+import edu.guilford.playerModels.ParameterizedModel;
+import edu.guilford.playerModels.Player;
+import edu.guilford.playerModels.RulePolicy;
 import edu.guilford.playerModels.TestModel;
+import edu.guilford.playerModels.TranspositionCache;
+import edu.guilford.replay.GameRecorder;
+import edu.guilford.replay.GameReplay;
+import edu.guilford.server.LoadGenerator;
+import edu.guilford.simulation.BatchEngine;
+import edu.guilford.simulation.Campaign;
+import edu.guilford.simulation.DuplicateTournament;
+import edu.guilford.simulation.EvolutionaryTuner;
+import edu.guilford.simulation.League;
+import edu.guilford.simulation.ResultAggregator;
+import edu.guilford.simulation.ResultStore;
+import edu.guilford.simulation.RoundSolver;
+import edu.guilford.simulation.SimulationRunner;
 
+/**
+ * Runs every test of the game in order, printing its results. Test 10 only reports metrics when the JVM is
+ * started with them enabled, for example {@code java -Dthirtyone.metrics=true -cp target/classes
+ * edu.guilford.ThirtyOneDriver}; the timings of the other tests are measured with metrics off.
+ */
 public class ThirtyOneDriver {
     public static void main(String[] args) {
 
@@ -47,15 +85,14 @@ public class ThirtyOneDriver {
         // Test 2: A smarter model
         /*
          * This test will implement a smarter logic capable model and pit it against 4 TestModels.
-         * A loop will play 1000 games using the 1 smarter model against 4 dumb models and print statistics.
+         * The simulation runner will play 1000 games in parallel using the 1 smarter model against 4 dumb models and print statistics.
          */
 
         System.out.println("");
         System.out.println("1000 Testing of BasicModel (player 5) against 4 TestModels (players 1-4)");
 
-        int[] wins = new int[5];
-
-        for (int i = 0; i < 1000; i++) {
+        SimulationRunner runner = new SimulationRunner();
+        ResultAggregator results = runner.run(() -> {
             TestModel p1 = new TestModel();
             TestModel p2 = new TestModel();
             TestModel p3 = new TestModel();
@@ -68,18 +105,11 @@ public class ThirtyOneDriver {
             grp.addPlayer(p3);
             grp.addPlayer(p4);
             grp.addPlayer(p5);
-
-            ThirtyOneGame gm = new ThirtyOneGame(grp);
-            gm.playGame();
-
-            int winner = grp.getWinner();
-            wins[winner - 1]++;
-        }
+            return grp;
+        }, 1000, 2L << 32, new ResultAggregator());
 
         System.out.println("Statistics after 1000 games:");
-        for (int i = 0; i < wins.length; i++) {
-            System.out.println("Player " + (i + 1) + " wins: " + wins[i]);
-        }
+        System.out.print(results);
 
         /**
          * Conclusion: The smarter model is significantly better than the dumb model, winning ~99% of the time!
@@ -88,47 +118,772 @@ public class ThirtyOneDriver {
          // Test 3: Advanced model
          /*
           * This test will implement the Basic Model and Advanced Model for testing
+          * and play games until the difference between the models is statistically decisive
           */
 
         System.out.println("");
-        System.out.println("1000 Testing of BasicModel & AdvancedModel (players 1-3, 4-6)");
+        System.out.println("Sequential testing of BasicModel & AdvancedModel (players 1-3, 4-6), up to 100000 games");
+
+        /*
+         * The campaign stops as soon as AdvancedModel's chance of winning is shown to be at least
+         * 5 points above or below its fair share of 50%, with 1% error rates.
+         */
+        ResultAggregator results2 = new ResultAggregator();
+        results2.setSequentialTest("AdvancedModel", 0.05, 0.01, 0.01);
+        runner.run(ThirtyOneDriver::newBasicAdvancedGroup, 100000, 3L << 32, results2);
+
+        System.out.println("Statistics after " + results2.getGames() + " games:");
+        System.out.print(results2);
+
+        /**
+         * Conclusion: As expected, the advanced model is significantly stronger and wins ~85% of the time over the basic model!
+         */
+    
+        // Test 4: Allocation-free advanced model
+        /*
+         * This test deals 100000 seeded hands and plays 10 turns of each hand with both AdvancedModel and
+         * FastAdvancedModel, checking that every draw, discard and knock decision is the same.
+         */
+
+        System.out.println("");
+        System.out.println("Decision comparison of AdvancedModel and FastAdvancedModel over 100000 seeded deals");
+
+        int decisions = 0;
+        int mismatches = 0;
+
+        for (long seed = 0; seed < 100000; seed++) {
+            DrawDeck deck = new DrawDeck(new SplittableRandom(seed));
+            deck.build();
+            deck.shuffle();
 
-        int[] wins2 = new int[6];
+            AdvancedModel reference = new AdvancedModel();
+            FastAdvancedModel fast = new FastAdvancedModel();
+            for (int i = 0; i < 3; i++) {
+                Card card = deck.poll();
+                reference.addCard(card);
+                fast.addCard(card);
+            }
+            Card discard = deck.poll();
 
+            for (int turn = 0; turn < 10; turn++) {
+                decisions += 3;
+                if (reference.requestKnock() != fast.requestKnock()) {
+                    mismatches++;
+                }
+
+                Player.Deck drawLocation = reference.requestDrawLocation(discard);
+                if (drawLocation != fast.requestDrawLocation(discard)) {
+                    mismatches++;
+                }
+                Card drawn = drawLocation == Player.Deck.DISCARD ? discard : deck.poll();
+                reference.addCard(drawn);
+                fast.addCard(drawn);
+
+                Card discarded = reference.requestDiscardCard();
+                if (discarded != fast.requestDiscardCard()) {
+                    mismatches++;
+                }
+                reference.removeCard(discarded);
+                fast.removeCard(discarded);
+                discard = discarded;
+            }
+        }
+
+        System.out.println("Decisions compared: " + decisions);
+        System.out.println("Mismatched decisions: " + mismatches);
+
+        /**
+         * Conclusion: Both models make identical decisions, so FastAdvancedModel can replace AdvancedModel in simulations.
+         */
+    
+        // Test 5: Seeded games and replay
+        /*
+         * This test records 1000 seeded games of BasicModel & AdvancedModel, replays the records without
+         * the models, and plays every seed again to check that seeded games are reproducible.
+         */
+
+        System.out.println("");
+        System.out.println("Recording and replaying 1000 seeded games of BasicModel & AdvancedModel (players 1-3, 4-6)");
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        GameRecorder recorder = new GameRecorder(record);
+        int[] recordedWinners = new int[1000];
         for (int i = 0; i < 1000; i++) {
-            // Create 3 basic models
-            BasicModel p1 = new BasicModel();
-            BasicModel p2 = new BasicModel();
-            BasicModel p3 = new BasicModel();
+            Group grp = newBasicAdvancedGroup();
+            ThirtyOneGame gm = new ThirtyOneGame(grp, i);
+            gm.setListener(recorder);
+            gm.playGame();
+            recordedWinners[i] = grp.getWinner();
+        }
+
+        int replayMatches = 0;
+        int reseededMatches = 0;
+        long replayStart = System.nanoTime();
+        try {
+            GameReplay replay = new GameReplay(new ByteArrayInputStream(record.toByteArray()));
+            for (int i = 0; replay.next(); i++) {
+                if (replay.getSeed() == i && replay.getWinner() == recordedWinners[i]) {
+                    replayMatches++;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Replay failed: " + e.getMessage());
+        }
+        long replayNanos = System.nanoTime() - replayStart;
+
+        for (int i = 0; i < 1000; i++) {
+            Group grp = newBasicAdvancedGroup();
+            new ThirtyOneGame(grp, i).playGame();
+            if (grp.getWinner() == recordedWinners[i]) {
+                reseededMatches++;
+            }
+        }
 
-            // Create 3 advanced models
-            AdvancedModel p4 = new AdvancedModel();
-            AdvancedModel p5 = new AdvancedModel();
-            AdvancedModel p6 = new AdvancedModel();
+        System.out.println("Record size: " + record.size() + " bytes (" + record.size() / 1000 + " bytes per game)");
+        System.out.println("Replayed games matching their record: " + replayMatches);
+        System.out.println("Replay time: " + replayNanos / 1000000 + " ms");
+        System.out.println("Re-played seeds with the same winner: " + reseededMatches);
+
+        /**
+         * Conclusion: Every seed reproduces its game, and the replay recovers every game without running the models.
+         */
+
+        // Test 6: Batch engine
+        /*
+         * This test plays 10000 seeded games between a BasicModel, a TestModel, another BasicModel and an
+         * AdvancedModel, once with ThirtyOneGame and once with the batch engine, and checks that every game
+         * has the same winner after the same number of rounds.
+         */
+
+        System.out.println("");
+        System.out.println("Comparison of ThirtyOneGame and BatchEngine over 10000 seeded games");
+
+        int batchGames = 10000;
+        int[] objectWinners = new int[batchGames];
+        int[] objectRounds = new int[batchGames];
+        long objectStart = System.nanoTime();
+        for (int i = 0; i < batchGames; i++) {
+            Group grp = newMixedGroup();
+            ThirtyOneGame game = new ThirtyOneGame(grp, i);
+            game.playGame();
+            objectWinners[i] = grp.getWinner();
+            objectRounds[i] = game.getRoundsPlayed();
+        }
+        long objectNanos = System.nanoTime() - objectStart;
+
+        long[] batchSeeds = new long[batchGames];
+        for (int i = 0; i < batchGames; i++) {
+            batchSeeds[i] = i;
+        }
+        int[] engineWinners = new int[batchGames];
+        int[] engineRounds = new int[batchGames];
+        long batchStart = System.nanoTime();
+        new BatchEngine(newMixedGroup(), batchGames).play(batchSeeds, batchGames, engineWinners, engineRounds);
+        long batchNanos = System.nanoTime() - batchStart;
 
+        int identicalGames = 0;
+        for (int i = 0; i < batchGames; i++) {
+            if (objectWinners[i] == engineWinners[i] && objectRounds[i] == engineRounds[i]) {
+                identicalGames++;
+            }
+        }
+
+        System.out.println("Games with the same winner and rounds: " + identicalGames);
+        System.out.println("ThirtyOneGame time: " + objectNanos / 1000000 + " ms");
+        System.out.println("BatchEngine time: " + batchNanos / 1000000 + " ms");
+
+        /**
+         * Conclusion: The batch engine plays exactly the same games as ThirtyOneGame for rule-based models.
+         */
+
+        // Test 7: Card counting model
+        /*
+         * This test plays 2000 games between 3 AdvancedModels and 3 CountingModels, then 2000 more with the
+         * seats swapped on the same deals, since later seats win less often. It also times the decisions of the counting model.
+         */
+
+        System.out.println("");
+        System.out.println("Simulation of 2000 games of CountingModel & AdvancedModel (players 1-3, 4-6)");
+        System.out.print(runner.run(() -> newCountingAdvancedGroup(true), 2000, 7L << 32, new ResultAggregator()));
+
+        System.out.println("");
+        System.out.println("Simulation of 2000 games of AdvancedModel & CountingModel (players 1-3, 4-6)");
+        System.out.print(runner.run(() -> newCountingAdvancedGroup(false), 2000, 7L << 32, new ResultAggregator()));
+
+        CountingModel counter = new CountingModel();
+        DrawDeck countingDeck = new DrawDeck(new SplittableRandom(31));
+        int countingDecisions = 0;
+        long countingStart = System.nanoTime();
+        for (int i = 0; i < 100000; i++) {
+            countingDeck.clear();
+            countingDeck.build();
+            countingDeck.shuffle();
+            counter.clearHand();
+            for (int j = 0; j < 3; j++) {
+                counter.addCard(countingDeck.poll());
+            }
+            counter.requestKnock();
+            counter.requestDrawLocation(countingDeck.poll());
+            countingDecisions += 2;
+        }
+        long countingNanos = System.nanoTime() - countingStart;
+        System.out.println("Mean decision time: " + countingNanos / countingDecisions + " ns");
+
+        /**
+         * Conclusion: Players 1-3 win more often whatever their model, but over both seatings the counting model
+         * wins ~55% of games, and each decision (including dealing the test hand) takes under two microseconds.
+         */
+
+        // Test 8: Monte Carlo search model
+        /*
+         * This test plays 100 games between 2 MonteCarloModels with 200 samples per decision and 2 AdvancedModels,
+         * swapping the seats of the two models after every game. Every game and every search is seeded, so the result
+         * is the same on every run.
+         */
+
+        System.out.println("");
+        System.out.println("Simulation of 100 games of MonteCarloModel & AdvancedModel, in both seatings");
+
+        ResultAggregator searchResults = new ResultAggregator();
+        long searchStart = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
             Group grp = new Group();
-            grp.addPlayer(p1);
-            grp.addPlayer(p2);
-            grp.addPlayer(p3);
-            grp.addPlayer(p4);
-            grp.addPlayer(p5);
-            grp.addPlayer(p6);
-            ThirtyOneGame gm = new ThirtyOneGame(grp);
-            gm.playGame();
+            for (int j = 0; j < 4; j++) {
+                boolean searchSeat = j < 2 == (i % 2 == 0);
+                grp.addPlayer(searchSeat ? new MonteCarloModel(200, 0, 1, RulePolicy.ADVANCED, i * 4L + j) : new AdvancedModel());
+            }
+            ThirtyOneGame game = new ThirtyOneGame(grp, i);
+            game.playGame();
+            searchResults.record(grp, game.getRoundsPlayed());
+        }
+        long searchNanos = System.nanoTime() - searchStart;
+        System.out.println("MonteCarloModel wins: " + searchResults.getModelWins("MonteCarloModel") + " of 100");
+        System.out.println("Mean game time: " + searchNanos / 100 / 1000000 + " ms");
+
+        /**
+         * Conclusion: With 200 samples per decision the search wins 44 of these 100 games and 196 of 400 seeded games,
+         * no better than its half against AdvancedModel, at a few hundred milliseconds per game.
+         */
+
+        // Test 9: Transposition cache
+        /*
+         * This test plays 1000 seeded games of 4 AdvancedModels sharing one cache of draw decisions and checks that
+         * every game has the same winner as without the cache. It then saves the cache, loads it into a new cache,
+         * and plays 1000 more games to see how much of the warm cache is reused.
+         */
+
+        System.out.println("");
+        System.out.println("Transposition cache shared by 4 AdvancedModels over 1000 seeded games");
 
-            int winner = grp.getWinner();
-            wins2[winner - 1]++;
+        TranspositionCache cache = new TranspositionCache(1 << 20);
+        int sameWinners = 0;
+        for (int i = 0; i < 1000; i++) {
+            Group cached = newCachedAdvancedGroup(cache);
+            new ThirtyOneGame(cached, i).playGame();
+            Group uncached = new Group(AdvancedModel.class, 4);
+            new ThirtyOneGame(uncached, i).playGame();
+            if (cached.getWinner() == uncached.getWinner()) {
+                sameWinners++;
+            }
         }
+        System.out.println("Games with the same winner as without the cache: " + sameWinners);
+        System.out.println("Entries: " + cache.size() + " | Hits: " + cache.getHits() + " | Misses: " + cache.getMisses());
 
-        int basicModelWins = wins2[0] + wins2[1] + wins2[2];
-        int advancedModelWins = wins2[3] + wins2[4] + wins2[5];
+        try {
+            Path cacheFile = Files.createTempFile("thirtyone-cache", ".bin");
+            cache.save(cacheFile);
+            TranspositionCache warmCache = new TranspositionCache(1 << 20);
+            warmCache.load(cacheFile);
+            for (int i = 1000; i < 2000; i++) {
+                new ThirtyOneGame(newCachedAdvancedGroup(warmCache), i).playGame();
+            }
+            System.out.println("Saved cache size: " + Files.size(cacheFile) + " bytes");
+            System.out.printf("Warm cache hit rate over 1000 new games: %.4f%n",
+                    (double) warmCache.getHits() / (warmCache.getHits() + warmCache.getMisses()));
+            Files.delete(cacheFile);
+        } catch (IOException e) {
+            System.out.println("Cache file failed: " + e.getMessage());
+        }
 
-        System.out.println("Statistics after 1000 games:");
-        System.out.println("BasicModel (players 1-3) wins: " + basicModelWins);
-        System.out.println("AdvancedModel (players 4-6) wins: " + advancedModelWins);
+        /**
+         * Conclusion: The cache never changes a decision. There are about a million (hand, discard) situations, so the
+         * hit rate climbs as the cache warms: ~22% over the first 1000 games and ~45% over the next 1000.
+         */
+
+        // Test 10: Metrics
+        /*
+         * This test plays 10000 games of the mixed group and prints the metrics recorded for them. Metrics are only
+         * collected when the JVM is started with -Dthirtyone.metrics=true.
+         */
+
+        System.out.println("");
+        System.out.println("Metrics over 10000 games of BasicModel, TestModel, BasicModel and AdvancedModel");
+
+        if (Metrics.ENABLED) {
+            Metrics.reset();
+            for (int i = 0; i < 10000; i++) {
+                new ThirtyOneGame(newMixedGroup(), i).playGame();
+            }
+            System.out.print(Metrics.snapshot());
+        } else {
+            System.out.println("Metrics are disabled; run java -Dthirtyone.metrics=true -cp target/classes "
+                    + "edu.guilford.ThirtyOneDriver to collect them.");
+        }
 
         /**
-         * Conclusion: As expected, the advanced model is significantly stronger and wins ~90% of the time over the basic model!
+         * Conclusion: Rounds last ~13.5 turns and a third of them end with the knocker losing two lives. Most
+         * decisions take 60-150 ns; only AdvancedModel's draw location and discard card cost ~1 µs each.
          */
+
+        // Test 11: Table server
+        /*
+         * This test starts a table server on the loopback address and connects 400 FastAdvancedModel bot clients,
+         * filling 100 tables of 4 that each play 2 games, to measure games per second and decision round trips.
+         */
+
+        System.out.println("");
+        System.out.println("Table server with 100 tables of 4 FastAdvancedModel clients, 2 games per table");
+
+        LoadGenerator load = new LoadGenerator(100, 4, 2, FastAdvancedModel::new);
+        try {
+            load.run();
+            System.out.print(load);
+        } catch (IOException e) {
+            System.out.println("Table server failed: " + e.getMessage());
+        }
+
+        /**
+         * Conclusion: Every table finishes. On a single core the server handles ~10000-13000 decisions per second, so
+         * the round trip grows with the number of tables in play; a lone table answers in ~65 µs.
+         */
+
+        // Test 12: League
+        /*
+         * This test ranks 5 models in a league of 4-seat tables. Each game seats two models in alternate seats,
+         * and the league keeps sending games to the pairs whose results are still uncertain until every rating's
+         * deviation is below 20 or 20000 games have been played.
+         */
+
+        System.out.println("");
+        System.out.println("League of TestModel, BasicModel, AdvancedModel, FastAdvancedModel and CountingModel at 4-seat tables");
+
+        League league = new League(4);
+        league.addModel(TestModel.class);
+        league.addModel(BasicModel.class);
+        league.addModel(AdvancedModel.class);
+        league.addModel(FastAdvancedModel.class);
+        league.addModel(CountingModel.class);
+        league.run(20000, 20);
+        System.out.print(league);
+        System.out.println("TestModel vs CountingModel games: " + league.getPairGames("TestModel", "CountingModel"));
+        System.out.println("AdvancedModel vs FastAdvancedModel games: " + league.getPairGames("AdvancedModel", "FastAdvancedModel"));
+
+        /**
+         * Conclusion: The league settles in ~1700 games. CountingModel, AdvancedModel and FastAdvancedModel finish
+         * within a few points of each other, well above BasicModel, and TestModel far below. Pairs with a clear
+         * favourite, like TestModel and CountingModel, get almost no games once their ratings are known.
+         */
+
+        // Test 13: Evolutionary tuner
+        /*
+         * This test tunes a ParameterizedModel against 3 FastAdvancedModels, starting from AdvancedModel's thresholds.
+         * It runs 4 generations with a checkpoint, then a second tuner resumes from the checkpoint for 4 more.
+         * The tuned and original thresholds are then compared on the same 4000 new deals.
+         */
+
+        System.out.println("");
+        System.out.println("Evolutionary tuning of ParameterizedModel against 3 FastAdvancedModels, 8 generations");
+
+        List<Supplier<? extends Player>> opponents = List.of(FastAdvancedModel::new, FastAdvancedModel::new, FastAdvancedModel::new);
+        try {
+            Path checkpoint = Files.createTempFile("thirtyone-tuner", ".bin");
+            Files.delete(checkpoint);
+            EvolutionaryTuner tuner = new EvolutionaryTuner(opponents, 31);
+            tuner.setCheckpoint(checkpoint);
+            tuner.run(4);
+            EvolutionaryTuner resumed = new EvolutionaryTuner(opponents, 31);
+            resumed.setCheckpoint(checkpoint);
+            System.out.println("Resumed at generation " + resumed.getGeneration());
+            double[] tuned = resumed.run(8);
+            System.out.print(resumed);
+            System.out.printf("Win rate on 4000 new deals: tuned %.4f | AdvancedModel thresholds %.4f%n",
+                    resumed.evaluate(tuned, 1L << 40, 4000),
+                    resumed.evaluate(ParameterizedModel.ADVANCED, 1L << 40, 4000));
+            Files.delete(checkpoint);
+        } catch (IOException e) {
+            System.out.println("Checkpoint failed: " + e.getMessage());
+        }
+
+        /**
+         * Conclusion: The resumed tuner picks up at generation 4 and ends where an uninterrupted run would. The tuned
+         * thresholds win ~30% of new deals against the ~26% of AdvancedModel's, mainly by waiting longer for a medium hand
+         * and taking discards more readily.
+         */
+
+        // Test 14: Exact round solver
+        /*
+         * This test fixes one deal at a table of a BasicModel, a BasicModel, a TestModel and an AdvancedModel, where
+         * player 2 holds 29 in spades and knocks at once. The round solver works out each player's exact chance of losing
+         * a life, and 200000 rounds of ThirtyOneGame with the same deal and a random draw deck are compared with it.
+         */
+
+        System.out.println("");
+        System.out.println("Exact round outcome vs 200000 simulated rounds of one deal");
+
+        int[][] solverHands = {
+            {Card.of(Card.Suit.HEARTS, Card.Rank.EIGHT).getIndex(), Card.of(Card.Suit.HEARTS, Card.Rank.SEVEN).getIndex(),
+                    Card.of(Card.Suit.CLUBS, Card.Rank.TWO).getIndex()},
+            {Card.of(Card.Suit.SPADES, Card.Rank.KING).getIndex(), Card.of(Card.Suit.SPADES, Card.Rank.QUEEN).getIndex(),
+                    Card.of(Card.Suit.SPADES, Card.Rank.NINE).getIndex()},
+            {Card.of(Card.Suit.DIAMONDS, Card.Rank.TEN).getIndex(), Card.of(Card.Suit.DIAMONDS, Card.Rank.FIVE).getIndex(),
+                    Card.of(Card.Suit.CLUBS, Card.Rank.THREE).getIndex()},
+            {Card.of(Card.Suit.CLUBS, Card.Rank.ACE).getIndex(), Card.of(Card.Suit.CLUBS, Card.Rank.SIX).getIndex(),
+                    Card.of(Card.Suit.DIAMONDS, Card.Rank.FOUR).getIndex()}
+        };
+        int solverDiscard = Card.of(Card.Suit.HEARTS, Card.Rank.NINE).getIndex();
+        RoundSolver solver = new RoundSolver(new RulePolicy[] {RulePolicy.BASIC, RulePolicy.BASIC, RulePolicy.TEST, RulePolicy.ADVANCED});
+        long solveStart = System.nanoTime();
+        RoundSolver.Outcome outcome = solver.solveDeal(solverHands, solverDiscard);
+        long solveNanos = System.nanoTime() - solveStart;
+
+        int solverRounds = 200000;
+        int[] simulatedLosses = new int[4];
+        int simulatedDoubles = 0;
+        Shuffler fixedDeal = fixedDeal(solverHands, solverDiscard, 14);
+        for (int round = 0; round < solverRounds; round++) {
+            Group solverGroup = new Group();
+            solverGroup.addPlayer(new BasicModel());
+            solverGroup.addPlayer(new BasicModel());
+            solverGroup.addPlayer(new TestModel());
+            solverGroup.addPlayer(new AdvancedModel());
+            ThirtyOneGame solverGame = new ThirtyOneGame(solverGroup, round);
+            solverGame.setShuffler(fixedDeal);
+            solverGame.playRound();
+            for (int seat = 0; seat < 4; seat++) {
+                int lost = 3 - solverGroup.getPlayers().get(seat).getLives();
+                if (lost > 0) {
+                    simulatedLosses[seat]++;
+                    if (lost == 2) {
+                        simulatedDoubles++;
+                    }
+                }
+            }
+        }
+        for (int seat = 0; seat < 4; seat++) {
+            System.out.printf("Player %d loses: exact %.4f | simulated %.4f%n", seat + 1, outcome.loss(seat),
+                    (double) simulatedLosses[seat] / solverRounds);
+        }
+        System.out.printf("Knocker loses two lives: exact %.4f | simulated %.4f%n", outcome.doubleLoss(),
+                (double) simulatedDoubles / solverRounds);
+        System.out.printf("Solved %d states in %.1f ms%n", outcome.states(), solveNanos / 1e6);
+
+        /**
+         * Conclusion: The exact chances match the simulated frequencies to within sampling error (player 1 loses 7.56%
+         * of rounds, player 3 the rest). The knock leaves only three draws, which the solver covers in ~25000 states and a
+         * fraction of a second, far less than the simulation needs for the same answer to three places.
+         */
+
+        // Test 15: Result store
+        /*
+         * This test stores 20000 games of the mixed table in a memory-mapped result store, closes it, and opens it
+         * again to query the knocker's loss rate at each final hand value and the wins of each model.
+         */
+
+        System.out.println("");
+        System.out.println("Result store of 20000 games of BasicModel, TestModel, BasicModel and AdvancedModel");
+
+        try {
+            Path storeDirectory = Files.createTempDirectory("thirtyone-store");
+            try (ResultStore store = new ResultStore(storeDirectory, 4)) {
+                for (int i = 0; i < 20000; i++) {
+                    Group storeGroup = newMixedGroup();
+                    ThirtyOneGame storeGame = new ThirtyOneGame(storeGroup, i);
+                    storeGame.setListener(store.recorder(storeGroup));
+                    storeGame.playGame();
+                }
+            }
+            try (ResultStore store = new ResultStore(storeDirectory, 4)) {
+                System.out.println("Stored games: " + store.getGames() + " | Stored rounds: " + store.getRounds());
+                long queryStart = System.nanoTime();
+                ResultStore.KnockStats knockStats = store.knockerLossesByHandValue();
+                long queryNanos = System.nanoTime() - queryStart;
+                for (int value = 15; value < knockStats.rounds().length; value++) {
+                    if (knockStats.rounds()[value] >= 100) {
+                        System.out.printf("Knocker at %d: %d rounds | loses %.4f%n", value, knockStats.rounds()[value],
+                                knockStats.lossRate(value));
+                    }
+                }
+                System.out.printf("Query over %d rounds took %.1f ms%n", store.getRounds(), queryNanos / 1e6);
+                System.out.println("Wins by model: " + store.winsByModel());
+            }
+            deleteDirectory(storeDirectory);
+        } catch (IOException e) {
+            System.out.println("Result store failed: " + e.getMessage());
+        }
+
+        /**
+         * Conclusion: The reopened store holds all 164318 rounds. A knocker who ends at 27 or more loses only 2-5% of
+         * rounds, while one who ends at 21 loses about half of them, and AdvancedModel wins ~75% of games. This first
+         * query includes JIT warm-up; once compiled a scan reads ~10 ns per round, about 10 s per 10^9 rounds.
+         */
+
+        // Test 16: Campaign checkpoint and resume
+        /*
+         * This test plays a 6000-game campaign of the mixed table twice: once without stopping, and once stopped
+         * after 2500 games and resumed by a new campaign from its checkpoint. Both must end with the same results.
+         */
+
+        System.out.println("");
+        System.out.println("Campaign of 6000 games, uninterrupted vs stopped at 2500 and resumed from a checkpoint");
+
+        ResultAggregator uninterrupted = new Campaign(ThirtyOneDriver::newMixedGroup, 2024, new ResultAggregator()).run(6000);
+        try {
+            Path campaignCheckpoint = Files.createTempFile("thirtyone-campaign", ".bin");
+            Files.delete(campaignCheckpoint);
+            Campaign firstPart = new Campaign(ThirtyOneDriver::newMixedGroup, 2024, new ResultAggregator());
+            firstPart.setCheckpoint(campaignCheckpoint, 500);
+            firstPart.run(2500);
+            Campaign secondPart = new Campaign(ThirtyOneDriver::newMixedGroup, 2024, new ResultAggregator());
+            secondPart.setCheckpoint(campaignCheckpoint, 500);
+            System.out.println("Resumed after game " + secondPart.getFinishedGames() + " | Checkpoints written before stopping: "
+                    + firstPart.getCheckpointsWritten());
+            ResultAggregator resumedResults = secondPart.run(6000);
+            System.out.print(resumedResults);
+            System.out.println("Same as uninterrupted: " + resumedResults.toString().equals(uninterrupted.toString()));
+            Files.delete(campaignCheckpoint);
+        } catch (IOException e) {
+            System.out.println("Checkpoint failed: " + e.getMessage());
+        }
+
+        /**
+         * Conclusion: The second campaign picks up at game 2500 from the checkpoint and ends with exactly the totals of
+         * the uninterrupted campaign, since every game keeps its seed and results are recorded in game order.
+         */
+
+        // Test 17: Duplicate tournament
+        /*
+         * This test compares CountingModel and AdvancedModel at 4-seat tables of two each, playing every deal with all
+         * 6 arrangements of the seating. It plays 300 deals of whole games and 2000 deals of single rounds, and compares
+         * the paired standard error of each difference with the one the same boards would give as independent deals.
+         */
+
+        System.out.println("");
+        System.out.println("Duplicate tournament of 2 CountingModels and 2 AdvancedModels");
+
+        DuplicateTournament duplicate = new DuplicateTournament(
+                List.of(CountingModel::new, AdvancedModel::new, CountingModel::new, AdvancedModel::new));
+        duplicate.run(DuplicateTournament.Board.GAME, 1L << 32, 300);
+        System.out.print(duplicate);
+        duplicate.run(DuplicateTournament.Board.ROUND, 1L << 32, 2000);
+        System.out.print(duplicate);
+        System.out.printf("z-score of the round difference: %.1f%n", duplicate.compare("CountingModel", "AdvancedModel").z());
+
+        /**
+         * Conclusion: CountingModel is better on both boards, but pairing buys far less than in bridge: 1.1x for whole
+         * games and 1.4x for single rounds. Every draw comes off one shared deck, so once the two models choose
+         * differently the later cards go to other seats, and the boards soon stop being alike. Single-round boards
+         * still show the difference at 5 standard errors from 12000 rounds.
+         */
+
+        // Test 18: Large tables
+        /*
+         * This test seats 4 to 500 BasicModels at one table, with as many decks as each table needs, and plays rounds
+         * until a million turns have been played at each size. The time per turn should not grow with the table. It
+         * also checks that a hand holding two copies of a card is valued like any other hand, and stores 1000 games of
+         * 20 AdvancedModels, which need two decks, to count the knockers whose hands are worth more than 31.
+         */
+
+        System.out.println("");
+        System.out.println("Large tables of BasicModels");
+
+        Hand doubledHand = new Hand();
+        doubledHand.addCard(Card.ofIndex(Card.Suit.HEARTS.ordinal() * 13 + Card.Rank.KING.ordinal()));
+        doubledHand.addCard(Card.ofIndex(Card.Suit.HEARTS.ordinal() * 13 + Card.Rank.KING.ordinal()));
+        doubledHand.addCard(Card.ofIndex(Card.Suit.HEARTS.ordinal() * 13 + Card.Rank.ACE.ordinal()));
+        System.out.println("Two Kings and the Ace of Hearts: total " + doubledHand.getTotalValue() + " | evaluator "
+                + HandEvaluator.value(doubledHand));
+
+        int[] roundTurns = new int[1];
+        GameListener turnCounter = new GameListener() {
+            @Override
+            public void roundFinished(Player knocker, Player loser, int livesLost, int turns) {
+                roundTurns[0] = turns;
+            }
+        };
+        // The first table only warms up the compiler
+        int[] tableSizes = {200, 4, 16, 50, 200, 500};
+        for (int t = 0; t < tableSizes.length; t++) {
+            int seats = tableSizes[t];
+            long tableTurns = 0;
+            long tableRounds = 0;
+            int decks = 0;
+            long tableStart = System.nanoTime();
+            while (tableTurns < 1_000_000) {
+                Group largeGroup = new Group(BasicModel.class, seats);
+                ThirtyOneGame largeGame = new ThirtyOneGame(largeGroup, tableRounds);
+                largeGame.setListener(turnCounter);
+                decks = largeGame.getDecks();
+                while (largeGroup.playersRemaining() > 1 && tableTurns < 1_000_000) {
+                    largeGame.playRound();
+                    tableTurns += roundTurns[0];
+                    tableRounds++;
+                }
+            }
+            long tableNanos = System.nanoTime() - tableStart;
+            if (t > 0) {
+                System.out.printf("%d seats, %d decks: %.1f turns per round | %.0f ns per turn%n", seats, decks,
+                        (double) tableTurns / tableRounds, (double) tableNanos / tableTurns);
+            }
+        }
+
+        try {
+            Path largeStoreDirectory = Files.createTempDirectory("thirtyone-large-store");
+            try (ResultStore store = new ResultStore(largeStoreDirectory, 20)) {
+                for (int i = 0; i < 1000; i++) {
+                    Group storeGroup = new Group(AdvancedModel.class, 20);
+                    ThirtyOneGame storeGame = new ThirtyOneGame(storeGroup, i);
+                    storeGame.setListener(store.recorder(storeGroup));
+                    storeGame.playGame();
+                }
+                ResultStore.KnockStats knockStats = store.knockerLossesByHandValue();
+                System.out.print("Stored rounds of 20 seats: " + store.getRounds());
+                for (int value = 30; value < knockStats.rounds().length; value++) {
+                    System.out.print(" | knocker at " + value + ": " + knockStats.rounds()[value]);
+                }
+                System.out.println();
+            }
+            deleteDirectory(largeStoreDirectory);
+        } catch (IOException e) {
+            System.out.println("Result store failed: " + e.getMessage());
+        }
+
+        /**
+         * Conclusion: A round takes at least a turn for each player still in, so dealing and scoring, which grow with the
+         * table, cost the same per turn at every size. From 16 to 500 seats (1 to 29 decks) a turn takes ~350-490 ns;
+         * the slight rise is the larger table falling out of cache. Small tables cost more per turn because their
+         * short games spend more of the time creating players. With two decks a knocker can hold two copies of the
+         * Ace of a suit, and ~1.7% of the stored rounds end with a knocker worth 32.
+         */
+    }
+
+    /**
+     * Deletes a directory of files, such as a result store.
+     *
+     * @param directory the directory to delete
+     * @throws IOException if a file cannot be deleted
+     */
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Creates a shuffler that deals the same hands and discard card every round and puts the other cards of the
+     * draw deck in random order. A recycled draw deck is shuffled randomly.
+     *
+     * @param hands the three cards of each player, in the order they are dealt
+     * @param discardCard the card turned up on the discard pile
+     * @param seed the seed of the random order of the other cards
+     * @return the shuffler
+     */
+    private static Shuffler fixedDeal(int[][] hands, int discardCard, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return (drawDeck, recycled) -> {
+            int[] order = new int[Card.DECK_SIZE];
+            int length;
+            int start;
+            if (recycled) {
+                length = drawDeck.copyIndices(order);
+                start = 0;
+            } else {
+                boolean[] dealt = new boolean[Card.DECK_SIZE];
+                start = 0;
+                for (int card = 0; card < 3; card++) {
+                    for (int[] hand : hands) {
+                        order[start++] = hand[card];
+                        dealt[hand[card]] = true;
+                    }
+                }
+                order[start++] = discardCard;
+                dealt[discardCard] = true;
+                length = start;
+                for (int index = 0; index < Card.DECK_SIZE; index++) {
+                    if (!dealt[index]) {
+                        order[length++] = index;
+                    }
+                }
+            }
+            for (int i = length - 1; i > start; i--) {
+                int swap = start + random.nextInt(i - start + 1);
+                int card = order[i];
+                order[i] = order[swap];
+                order[swap] = card;
+            }
+            drawDeck.load(order, length);
+        };
+    }
+
+    /**
+     * Creates a group of 3 BasicModels (players 1-3) and 3 AdvancedModels (players 4-6).
+     * 
+     * @return the new group
+     */
+    private static Group newBasicAdvancedGroup() {
+        Group grp = new Group();
+        for (int i = 0; i < 3; i++) {
+            grp.addPlayer(new BasicModel());
+        }
+        for (int i = 0; i < 3; i++) {
+            grp.addPlayer(new AdvancedModel());
+        }
+        return grp;
+    }
+
+    /**
+     * Creates a group of a BasicModel, a TestModel, a BasicModel and an AdvancedModel.
+     * 
+     * @return the new group
+     */
+    private static Group newMixedGroup() {
+        Group grp = new Group();
+        grp.addPlayer(new BasicModel());
+        grp.addPlayer(new TestModel());
+        grp.addPlayer(new BasicModel());
+        grp.addPlayer(new AdvancedModel());
+        return grp;
+    }
+
+    /**
+     * Creates a group of 3 CountingModels and 3 AdvancedModels.
+     * 
+     * @param countingFirst {@code true} to seat the CountingModels as players 1-3, {@code false} for players 4-6
+     * @return the new group
+     */
+    private static Group newCountingAdvancedGroup(boolean countingFirst) {
+        Group grp = new Group();
+        for (int i = 0; i < 6; i++) {
+            grp.addPlayer(i < 3 == countingFirst ? new CountingModel() : new AdvancedModel());
+        }
+        return grp;
+    }
+
+    /**
+     * Creates a group of 4 AdvancedModels that share a cache of draw decisions.
+     * 
+     * @param cache the shared cache
+     * @return the new group
+     */
+    private static Group newCachedAdvancedGroup(TranspositionCache cache) {
+        Group grp = new Group();
+        for (int i = 0; i < 4; i++) {
+            AdvancedModel model = new AdvancedModel();
+            model.setCache(cache);
+            grp.addPlayer(model);
+        }
+        return grp;
     }
-}
\ No newline at end of file
+}
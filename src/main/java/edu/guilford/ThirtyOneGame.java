@@ -1,45 +1,168 @@
 package edu.guilford;
 
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+import edu.guilford.gameObjects.Card;
 import edu.guilford.gameObjects.DiscardDeck;
 import edu.guilford.gameObjects.DrawDeck;
+import edu.guilford.gameObjects.Shuffler;
+import edu.guilford.metrics.Metrics;
 import edu.guilford.playerModels.Group;
 import edu.guilford.playerModels.Player;
+import edu.guilford.playerModels.TurnContext;
+import edu.guilford.playerModels.TurnDecision;
 
 /**
  * The ThirtyOneGame class manages the flow of a game of Thirty-One, handling
  * player turns, deck management, and round progression.
+ * <p>
+ * Every game is driven by a seed. Each round shuffles with its own generator, seeded
+ * from the game's generator, so a game with the same seed and the same players is
+ * played identically however much of each deck its rounds use.
+ * <p>
+ * A single deck deals to at most 16 players. Larger tables play with several decks
+ * shuffled together, and every step of a turn takes the same time however many
+ * players are seated, so only dealing and scoring a round grow with the table.
  */
 public class ThirtyOneGame {
     
     private final DrawDeck drawDeck; // The draw deck for the game
     private final DiscardDeck discardDeck; // The discard deck for the game
     private final Group playerGroup; // The group of players in the game
+    private final long seed; // The seed the game was created with
+    private final int decks; // Number of full sets of cards in the draw deck
+    private final SplittableRandom random; // Seeds the shuffles of each round
+    private final Turn turnContext = new Turn(); // What the current player sees during its turn
     private Player knockPlayer; // The player that initiates the knock
+    private Shuffler shuffler; // Orders the draw deck, or null to shuffle it randomly
+    private GameListener listener; // Observes the game, or null
+    private int roundsPlayed = 0; // Number of rounds played so far
 
     /**
-     * Constructs a new Thirty-One game with the specified group of players.
+     * Constructs a new Thirty-One game with the specified group of players and a random seed.
      * 
      * @param playerGroup the group of players participating in the game
-     * @throws IllegalArgumentException if the number of players exceeds 16
      */
     public ThirtyOneGame(Group playerGroup) {
-        drawDeck = new DrawDeck();
-        discardDeck = new DiscardDeck();
-        this.playerGroup = playerGroup;
+        this(playerGroup, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Constructs a new Thirty-One game whose seed is drawn from the given generator.
+     * 
+     * @param playerGroup the group of players participating in the game
+     * @param random the generator that supplies the game's seed
+     */
+    public ThirtyOneGame(Group playerGroup, RandomGenerator random) {
+        this(playerGroup, random.nextLong());
+    }
+
+    /**
+     * Constructs a new Thirty-One game with the specified group of players and seed, played with
+     * as many decks as {@link #decksFor(int)} gives for the group.
+     * 
+     * @param playerGroup the group of players participating in the game
+     * @param seed the seed that determines every shuffle of the game
+     */
+    public ThirtyOneGame(Group playerGroup, long seed) {
+        this(playerGroup, seed, decksFor(playerGroup.size()));
+    }
 
-        // Ensure the player count does not exceed 16
-        if (playerGroup.size() > 16) {
-            throw new IllegalArgumentException("Number of players cannot exceed 16.");
+    /**
+     * Constructs a new Thirty-One game with the specified group of players, seed and number of decks.
+     * 
+     * @param playerGroup the group of players participating in the game
+     * @param seed the seed that determines every shuffle of the game
+     * @param decks the number of full sets of cards shuffled together
+     * @throws IllegalArgumentException if the decks cannot deal every player a hand and leave a card to draw
+     */
+    public ThirtyOneGame(Group playerGroup, long seed, int decks) {
+        if (decks < 1 || 3 * playerGroup.size() + 2 > decks * Card.DECK_SIZE) {
+            throw new IllegalArgumentException(decks + " decks cannot deal to " + playerGroup.size() + " players.");
+        }
+        this.seed = seed;
+        this.decks = decks;
+        random = new SplittableRandom(seed);
+        drawDeck = new DrawDeck(new SplittableRandom(), decks);
+        drawDeck.setLazyShuffle(true);
+        discardDeck = new DiscardDeck(decks);
+        this.playerGroup = playerGroup;
+        for (Player player : playerGroup.getPlayers()) {
+            player.setDiscardDeck(discardDeck);
         }
     }
 
+    /**
+     * Returns the number of decks a table needs: one deck up to 16 players, and beyond that enough
+     * decks to deal every hand and the first discard and still leave three cards to draw.
+     * 
+     * @param players the number of players at the table
+     * @return the number of decks
+     */
+    public static int decksFor(int players) {
+        return Math.max(1, (3 * players + 4 + Card.DECK_SIZE - 1) / Card.DECK_SIZE);
+    }
+
+    /**
+     * Returns the number of full sets of cards the game is played with.
+     * 
+     * @return the number of decks
+     */
+    public int getDecks() {
+        return decks;
+    }
+
+    /**
+     * Returns the seed that determines every shuffle of the game.
+     * 
+     * @return the game's seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of rounds played so far.
+     * 
+     * @return the round count
+     */
+    public int getRoundsPlayed() {
+        return roundsPlayed;
+    }
+
+    /**
+     * Replaces the random shuffle of the draw deck, for example to replay recorded deck orders.
+     * 
+     * @param shuffler the shuffler to use, or {@code null} to shuffle randomly
+     */
+    public void setShuffler(Shuffler shuffler) {
+        this.shuffler = shuffler;
+    }
+
+    /**
+     * Sets a listener that is told about every shuffle, knock, turn and round of the game.
+     * 
+     * @param listener the listener, or {@code null} to remove it
+     */
+    public void setListener(GameListener listener) {
+        this.listener = listener;
+    }
+
     /**
      * Plays the game until only one player remains.
      */
     public void playGame() {
+        if (listener != null) {
+            listener.gameStarted(seed, playerGroup.size());
+        }
         while (playerGroup.playersRemaining() > 1) {
             playRound();
         }
+        if (listener != null) {
+            listener.gameFinished(playerGroup.getWinner());
+        }
     }
 
     /**
@@ -47,11 +170,14 @@ public class ThirtyOneGame {
      * and determining the losing player.
      */
     public void playRound() {
+        roundsPlayed++;
         resetGame();
         Player player = playerGroup.getNextPlayer();
+        int turns = 0;
         
         // Continue playing turns until a condition ends the round
         while (playTurn(player)) {
+            turns++;
             player = playerGroup.getNextPlayer();
         }
 
@@ -68,10 +194,17 @@ public class ThirtyOneGame {
         }
 
         // Reduce lives based on the knock rule
-        if (minPlayer == knockPlayer) {
-            minPlayer.removeLives(2);
-        } else {
-            minPlayer.removeLives();
+        int livesLost = minPlayer == knockPlayer ? 2 : 1;
+        minPlayer.removeLives(livesLost);
+
+        if (Metrics.ENABLED) {
+            Metrics.roundPlayed(turns);
+            if (minPlayer == knockPlayer) {
+                Metrics.doubleLoss();
+            }
+        }
+        if (listener != null) {
+            listener.roundFinished(knockPlayer, minPlayer, livesLost, turns);
         }
     }
 
@@ -87,10 +220,11 @@ public class ThirtyOneGame {
         if (discardDeck.size() == 0) {
             discardDeck.push(drawDeck.poll());
         } else if (drawDeck.isEmpty()) {
-            while (discardDeck.size() > 1) {
-                drawDeck.add(discardDeck.pop());
+            discardDeck.recycleInto(drawDeck);
+            shuffle(true);
+            if (Metrics.ENABLED) {
+                Metrics.reshuffled();
             }
-            drawDeck.shuffle();
         }
 
         // End the round if all players have knocked
@@ -100,30 +234,47 @@ public class ThirtyOneGame {
 
         // Start the knock sequence if no player has knocked yet
         if (!playerGroup.knockStarted()) {
-            if (player.requestKnock()) {
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            boolean knocks = player.requestKnock();
+            if (Metrics.ENABLED) {
+                Metrics.decided(player, Metrics.Decision.KNOCK, start);
+            }
+            if (knocks) {
+                player.setKnock(true);
                 knockPlayer = player;
+                if (Metrics.ENABLED) {
+                    Metrics.knocked(player);
+                }
+                if (listener != null) {
+                    listener.knocked(player);
+                }
                 return true; 
             }
         }
 
-        // Player draws a card
-        Player.Deck drawDeckLocation = player.requestDrawLocation(discardDeck.peek());
-        switch (drawDeckLocation) {
-            case DRAW -> player.addCard(drawDeck.poll());
-            case DISCARD -> player.addCard(discardDeck.pop());
+        // Player draws and discards a card, deciding each exactly once
+        turnContext.begin(player);
+        TurnDecision decision = player.decideTurn(turnContext);
+        if (!turnContext.drawn) {
+            throw new IllegalStateException(player.getClass().getSimpleName() + " ended its turn without drawing.");
         }
+        if (decision.drawLocation() != turnContext.drawLocation) {
+            throw new IllegalStateException(player.getClass().getSimpleName() + " drew from the "
+                    + turnContext.drawLocation + " deck but reported the " + decision.drawLocation() + " deck.");
+        }
+        if (!player.hasCard(decision.discardCard())) {
+            throw new IllegalStateException(player.getClass().getSimpleName() + " discarded "
+                    + decision.discardCard() + ", which is not in its hand.");
+        }
+        Card discardCard = decision.discardCard();
+        switch (decision.discardLocation()) {
+            case DRAW -> drawDeck.add(discardCard);
+            case DISCARD -> discardDeck.push(discardCard);
+        }
+        player.removeCard(discardCard);
 
-        // Player discards a card
-        Player.Deck discardDeckLocation = player.requestDiscardLocation();
-        switch (discardDeckLocation) {
-            case DRAW -> {
-                drawDeck.add(player.requestDiscardCard());
-                player.removeCard(player.requestDiscardCard());
-            }
-            case DISCARD -> {
-                discardDeck.push(player.requestDiscardCard());
-                player.removeCard(player.requestDiscardCard());
-            }
+        if (listener != null) {
+            listener.turnPlayed(player, turnContext.drawLocation, decision.discardLocation(), discardCard);
         }
 
         // If a knocking sequence is active, mark the player as knocked
@@ -152,10 +303,67 @@ public class ThirtyOneGame {
         discardDeck.clear();
         drawDeck.clear();
         drawDeck.build();
-        drawDeck.shuffle();
+        drawDeck.setRandom(new SplittableRandom(random.nextLong()));
+        shuffle(false);
 
         // Deal cards to players
         playerGroup.dealCards(drawDeck);
         discardDeck.push(drawDeck.poll());
     }
-}
\ No newline at end of file
+
+    /**
+     * Shuffles the draw deck, or lets the shuffler order it, and reports the new order.
+     * 
+     * @param recycled {@code true} if the deck was refilled from the discard deck during a round
+     */
+    private void shuffle(boolean recycled) {
+        if (shuffler != null) {
+            shuffler.shuffle(drawDeck, recycled);
+        } else {
+            drawDeck.shuffle();
+        }
+        if (listener != null) {
+            listener.deckShuffled(drawDeck, recycled);
+        }
+    }
+
+    /**
+     * The game as a player sees it during its turn. One instance is reused for every turn.
+     */
+    private final class Turn implements TurnContext {
+        private Player player; // The player taking the turn
+        private boolean drawn; // Whether the player has drawn this turn
+        private Player.Deck drawLocation; // The deck the player drew from this turn
+
+        /**
+         * Prepares for a player's turn.
+         */
+        void begin(Player player) {
+            this.player = player;
+            drawn = false;
+        }
+
+        @Override
+        public Card getDiscardCard() {
+            return discardDeck.peek();
+        }
+
+        @Override
+        public Card draw(Player.Deck location) {
+            if (drawn) {
+                throw new IllegalStateException("A player may only draw once per turn.");
+            }
+            drawn = true;
+            drawLocation = location;
+            if (Metrics.ENABLED) {
+                Metrics.drew(location == Player.Deck.DISCARD);
+            }
+            Card card = switch (location) {
+                case DRAW -> drawDeck.poll();
+                case DISCARD -> discardDeck.pop();
+            };
+            player.addCard(card);
+            return card;
+        }
+    }
+}
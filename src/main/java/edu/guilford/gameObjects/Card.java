@@ -1,10 +1,15 @@
 package edu.guilford.gameObjects;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The Card class represents a standard playing card with a suit and rank.
  * It implements the Comparable interface for sorting based on suit or rank.
+ * <p>
+ * Every card also has a compact index from 0 to 51 ({@code suit * 13 + rank}).
+ * The 52 canonical cards are kept in a static table, so decks, hands and models
+ * can share them through {@link #of(Suit, Rank)} and {@link #ofIndex(int)}, or pass
+ * primitive indices around and look up their point value, suit and rank directly.
  */
 public class Card implements Comparable<Card> {
 
@@ -22,9 +27,34 @@ public class Card implements Comparable<Card> {
         ACE, TWO, THREE, FOUR, FIVE, SIX, SEVEN, EIGHT, NINE, TEN, JACK, QUEEN, KING
     }
 
+    /**
+     * Number of distinct cards in a standard deck.
+     */
+    public static final int DECK_SIZE = 52;
+
+    // Number of ranks in each suit
+    private static final int RANKS_PER_SUIT = 13;
+
+    // Cached enum values, so lookups do not clone the values() array
+    private static final Suit[] SUITS = Suit.values();
+    private static final Rank[] RANKS = Rank.values();
+
+    // Lookup tables indexed by card index
+    private static final Card[] CARDS = new Card[DECK_SIZE];
+    private static final int[] POINT_VALUES = new int[DECK_SIZE];
+
+    static {
+        for (int index = 0; index < DECK_SIZE; index++) {
+            CARDS[index] = new Card(SUITS[index / RANKS_PER_SUIT], RANKS[index % RANKS_PER_SUIT]);
+            POINT_VALUES[index] = CARDS[index].value;
+        }
+    }
+
     // Instance variables
     private final Suit suit;
     private final Rank rank;
+    private final int index;
+    private final int value;
 
     /**
      * Constant for sorting by suit.
@@ -37,9 +67,10 @@ public class Card implements Comparable<Card> {
     public static final int SORT_BY_RANK = 2;
 
     /**
-     * Static variable to determine the sorting method.
+     * Sorting method used by {@link #compareTo(Card)}. It is held per thread so that
+     * games running concurrently on different threads cannot change each other's ordering.
      */
-    private static int sortMethod = SORT_BY_RANK;
+    private static final ThreadLocal<Integer> sortMethod = ThreadLocal.withInitial(() -> SORT_BY_RANK);
 
     /**
      * Constructs a Card with a specified suit and rank.
@@ -50,17 +81,82 @@ public class Card implements Comparable<Card> {
     public Card(Suit suit, Rank rank) {
         this.suit = suit;
         this.rank = rank;
+        this.index = suit.ordinal() * RANKS_PER_SUIT + rank.ordinal();
+        this.value = pointValue(rank);
     }
 
     /**
      * Constructs a Card with a random suit and rank.
      */
     public Card() {
-        Random rand = new Random();
-        int suit = rand.nextInt(Suit.values().length);
-        int rank = rand.nextInt(Rank.values().length);
-        this.suit = Suit.values()[suit];
-        this.rank = Rank.values()[rank];
+        this(SUITS[ThreadLocalRandom.current().nextInt(SUITS.length)],
+                RANKS[ThreadLocalRandom.current().nextInt(RANKS.length)]);
+    }
+
+    /**
+     * Returns the canonical card with the given suit and rank.
+     *
+     * @param suit The suit of the card.
+     * @param rank The rank of the card.
+     * @return The shared card instance.
+     */
+    public static Card of(Suit suit, Rank rank) {
+        return CARDS[suit.ordinal() * RANKS_PER_SUIT + rank.ordinal()];
+    }
+
+    /**
+     * Returns the canonical card with the given index.
+     *
+     * @param index The card index, from 0 to 51.
+     * @return The shared card instance.
+     * @throws ArrayIndexOutOfBoundsException if the index is not a valid card index
+     */
+    public static Card ofIndex(int index) {
+        return CARDS[index];
+    }
+
+    /**
+     * Returns the Thirty-One point value of the card with the given index.
+     *
+     * @param index The card index, from 0 to 51.
+     * @return 11 for an ace, 10 for a face card, otherwise the rank's number.
+     */
+    public static int pointValue(int index) {
+        return POINT_VALUES[index];
+    }
+
+    /**
+     * Returns the suit ordinal of the card with the given index.
+     *
+     * @param index The card index, from 0 to 51.
+     * @return The ordinal of the card's suit.
+     */
+    public static int suitOf(int index) {
+        return index / RANKS_PER_SUIT;
+    }
+
+    /**
+     * Returns the rank ordinal of the card with the given index.
+     *
+     * @param index The card index, from 0 to 51.
+     * @return The ordinal of the card's rank.
+     */
+    public static int rankOf(int index) {
+        return index % RANKS_PER_SUIT;
+    }
+
+    /**
+     * Returns the Thirty-One point value of a rank.
+     *
+     * @param rank The rank to evaluate.
+     * @return 11 for an ace, 10 for a face card, otherwise the rank's number.
+     */
+    private static int pointValue(Rank rank) {
+        return switch (rank) {
+            case ACE -> 11;
+            case TEN, JACK, QUEEN, KING -> 10;
+            default -> rank.ordinal() + 1;
+        };
     }
 
     /**
@@ -82,12 +178,30 @@ public class Card implements Comparable<Card> {
     }
 
     /**
-     * Sets the sorting method for card comparison.
+     * Gets the compact index of the card.
+     *
+     * @return The card index, from 0 to 51.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the Thirty-One point value of the card.
+     *
+     * @return 11 for an ace, 10 for a face card, otherwise the rank's number.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Sets the sorting method for card comparison on the calling thread.
      *
      * @param sortMethod The sorting method (SORT_BY_SUIT or SORT_BY_RANK).
      */
     public static void setSortMethod(int sortMethod) {
-        Card.sortMethod = sortMethod;
+        Card.sortMethod.set(sortMethod);
     }
 
     /**
@@ -100,6 +214,27 @@ public class Card implements Comparable<Card> {
         return rank + " of " + suit;
     }
 
+    /**
+     * Checks whether another object is a card of the same suit and rank.
+     *
+     * @param other The object to compare with.
+     * @return true if the other object is a card with the same index.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Card && ((Card) other).index == index;
+    }
+
+    /**
+     * Returns a hash code based on the card index.
+     *
+     * @return The card index.
+     */
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
     /**
      * Compares this card with another card for ordering.
      * Sorting is based on the currently set sort method.
@@ -109,7 +244,7 @@ public class Card implements Comparable<Card> {
      */
     @Override
     public int compareTo(Card otherCard) {
-        if (sortMethod == SORT_BY_SUIT) {
+        if (sortMethod.get() == SORT_BY_SUIT) {
             if (this.suit.ordinal() > otherCard.suit.ordinal()) {
                 return 1;
             } else if (this.suit.ordinal() < otherCard.suit.ordinal()) {
@@ -1,43 +1,142 @@
 package edu.guilford.gameObjects;
 
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.EmptyStackException;
 
 /**
  * The DiscardDeck class represents a stack-based discard pile for a card game.
  * It provides methods to push, pop, peek, check emptiness, get size, and clear the deck.
+ * <p>
+ * The pile is an unsynchronized array stack, since each game is only ever played by one thread.
+ * It also keeps a bit mask of the cards in the pile and of the cards players have taken from it,
+ * which is everything a player who watches the pile knows about where cards are.
+ * When the game uses several decks the pile also counts the copies of each card on it and taken
+ * from it, so a card stays in a mask until its last copy leaves.
  */
 public class DiscardDeck {
     
     /**
-     * Stack to store discarded cards.
+     * Array holding the discarded cards, with the top of the pile at {@code size - 1}.
      */
-    private final Stack<Card> cardStack = new Stack<>();
+    private final Card[] cards;
+
+    /**
+     * Number of copies of each card in the discard deck, by card index, or null for a single deck.
+     */
+    private final int[] copies;
+
+    /**
+     * Number of copies of each card taken from the discard deck and not discarded again, by card index,
+     * or null for a single deck.
+     */
+    private final int[] takenCopies;
+
+    /**
+     * Number of full sets of cards in the game.
+     */
+    private final int decks;
+
+    /**
+     * Number of cards in the discard deck.
+     */
+    private int size = 0;
+
+    /**
+     * Bit mask of the cards in the discard deck, by card index.
+     */
+    private long mask = 0;
+
+    /**
+     * Bit mask of the cards taken from the discard deck and not discarded again since it was cleared.
+     */
+    private long takenMask = 0;
+
+    /**
+     * Constructs an empty discard deck with room for a single set of cards.
+     */
+    public DiscardDeck() {
+        this(1);
+    }
+
+    /**
+     * Constructs an empty discard deck with room for the given number of full sets of cards.
+     *
+     * @param decks the number of full sets of cards in the game
+     * @throws IllegalArgumentException if the number of sets is less than 1
+     */
+    public DiscardDeck(int decks) {
+        if (decks < 1) {
+            throw new IllegalArgumentException("A deck must hold at least one set of cards.");
+        }
+        this.decks = decks;
+        cards = new Card[decks * Card.DECK_SIZE];
+        copies = decks > 1 ? new int[Card.DECK_SIZE] : null;
+        takenCopies = decks > 1 ? new int[Card.DECK_SIZE] : null;
+    }
+
+    /**
+     * Returns the number of full sets of cards in the game.
+     *
+     * @return the number of sets
+     */
+    public int getDecks() {
+        return decks;
+    }
 
     /**
      * Pushes a card onto the discard deck.
      * 
      * @param card The card to be added to the discard deck.
+     * @throws IllegalStateException if the discard deck is full
      */
     public void push(Card card) {
-        cardStack.push(card);
+        if (size == cards.length) {
+            throw new IllegalStateException("Discard deck is full.");
+        }
+        cards[size++] = card;
+        mask |= 1L << card.getIndex();
+        if (copies == null) {
+            takenMask &= ~(1L << card.getIndex());
+        } else {
+            copies[card.getIndex()]++;
+            if (takenCopies[card.getIndex()] > 0 && --takenCopies[card.getIndex()] == 0) {
+                takenMask &= ~(1L << card.getIndex());
+            }
+        }
     }
 
     /**
      * Pops a card from the discard deck.
      * 
      * @return The top card from the discard deck.
+     * @throws EmptyStackException if the discard deck is empty
      */
     public Card pop() {
-        return cardStack.pop();
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        Card card = cards[--size];
+        if (copies == null || --copies[card.getIndex()] == 0) {
+            mask &= ~(1L << card.getIndex());
+        }
+        takenMask |= 1L << card.getIndex();
+        if (takenCopies != null) {
+            takenCopies[card.getIndex()]++;
+        }
+        return card;
     }
 
     /**
      * Peeks at the top card of the discard deck without removing it.
      * 
      * @return The top card from the discard deck.
+     * @throws EmptyStackException if the discard deck is empty
      */
     public Card peek() {
-        return cardStack.peek();
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        return cards[size - 1];
     }
 
     /**
@@ -46,7 +145,7 @@ public class DiscardDeck {
      * @return true if the discard deck is empty, false otherwise.
      */
     public boolean isEmpty() {
-        return cardStack.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -55,13 +154,86 @@ public class DiscardDeck {
      * @return The number of cards in the discard deck.
      */
     public int size() {
-        return cardStack.size();
+        return size;
     }
 
     /**
      * Clears the discard deck.
      */
     public void clear() {
-        cardStack.clear();
+        size = 0;
+        mask = 0;
+        takenMask = 0;
+        if (copies != null) {
+            Arrays.fill(copies, 0);
+            Arrays.fill(takenCopies, 0);
+        }
+    }
+
+    /**
+     * Returns the cards in the discard deck as a bit mask, with bit {@code i} set for the card with index {@code i}.
+     * 
+     * @return The mask of the discarded cards.
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Returns the cards that players have taken from the discard deck since it was last cleared,
+     * leaving out any that were discarded again.
+     * 
+     * @return The mask of the taken cards.
+     */
+    public long getTakenMask() {
+        return takenMask;
+    }
+
+    /**
+     * Returns the number of copies of a card in the discard deck.
+     *
+     * @param index the index of the card
+     * @return the number of copies
+     */
+    public int copiesOf(int index) {
+        if (copies == null) {
+            return (int) (mask >>> index) & 1;
+        }
+        return copies[index];
+    }
+
+    /**
+     * Returns the number of copies of a card that players have taken from the discard deck since it was
+     * last cleared, leaving out any that were discarded again.
+     *
+     * @param index the index of the card
+     * @return the number of taken copies
+     */
+    public int takenCopiesOf(int index) {
+        if (takenCopies == null) {
+            return (int) (takenMask >>> index) & 1;
+        }
+        return takenCopies[index];
+    }
+
+    /**
+     * Moves every card except the top one to the bottom of the draw deck in a single bulk copy.
+     * The top card stays on the discard deck. The draw deck is not shuffled.
+     * 
+     * @param drawDeck The draw deck that receives the cards.
+     * @throws IllegalStateException if the draw deck does not have room for the cards
+     */
+    public void recycleInto(DrawDeck drawDeck) {
+        if (size <= 1) {
+            return;
+        }
+        drawDeck.addAll(cards, 0, size - 1);
+        cards[0] = cards[size - 1];
+        size = 1;
+        mask = 1L << cards[0].getIndex();
+        if (copies != null) {
+            Arrays.fill(copies, 0);
+            copies[cards[0].getIndex()] = 1;
+        }
     }
 }
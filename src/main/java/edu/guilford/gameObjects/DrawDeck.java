@@ -1,29 +1,128 @@
 package edu.guilford.gameObjects;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractQueue;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * The DrawDeck class represents a deck of cards using a queue data structure.
  * It provides methods to add, remove, shuffle, and inspect cards in the deck.
+ * <p>
+ * The cards are stored in a fixed-capacity ring buffer and shuffled in place with
+ * a Fisher-Yates shuffle. In lazy shuffle mode the shuffle is only carried out as
+ * cards are drawn from the front, so a round that uses a handful of cards does not
+ * pay for shuffling the whole deck. Both modes consume the random source in the same
+ * order and therefore produce the same card order for the same random source.
+ * <p>
+ * A deck can be made to hold several full sets of cards, for tables with more players
+ * than a single set can deal to. The copies of a card are the same {@link Card} object.
  */
-public class DrawDeck implements Queue<Card> {
-    private final Queue<Card> cardQueue = new LinkedList<>();
+public class DrawDeck extends AbstractQueue<Card> implements Queue<Card> {
+
+    private final int decks; // Number of full sets of cards the deck holds
+    private final Card[] cards; // Ring buffer of cards
+    private int head = 0; // Slot of the card at the front of the deck
+    private int count = 0; // Number of cards in the deck
+    private int pending = 0; // Number of front cards still waiting to be shuffled
+    private boolean lazyShuffle = false; // Whether shuffles are deferred until cards are drawn
+    private RandomGenerator random; // Random source owned by this deck
+
+    /**
+     * Constructs an empty deck with its own random source.
+     */
+    public DrawDeck() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructs an empty deck that shuffles with the given random source.
+     * The random source is not shared with other decks, so decks used by
+     * different threads do not contend on a common generator.
+     *
+     * @param random the random source used by {@link #shuffle()}
+     */
+    public DrawDeck(RandomGenerator random) {
+        this(random, 1);
+    }
+
+    /**
+     * Constructs an empty deck with room for the given number of full sets of cards,
+     * which {@link #build()} fills.
+     *
+     * @param random the random source used by {@link #shuffle()}
+     * @param decks the number of full sets of cards
+     * @throws IllegalArgumentException if the number of sets is less than 1
+     */
+    public DrawDeck(RandomGenerator random, int decks) {
+        if (decks < 1) {
+            throw new IllegalArgumentException("A deck must hold at least one set of cards.");
+        }
+        this.random = random;
+        this.decks = decks;
+        cards = new Card[decks * Card.DECK_SIZE];
+    }
+
+    /**
+     * Returns the number of full sets of cards the deck holds when it is built.
+     *
+     * @return the number of sets
+     */
+    public int getDecks() {
+        return decks;
+    }
+
+    /**
+     * Replaces the random source used by {@link #shuffle()}.
+     *
+     * @param random the new random source
+     */
+    public void setRandom(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * Enables or disables lazy shuffling. When enabled, {@link #shuffle()} only marks
+     * the deck as unshuffled and each card is chosen at random when it is drawn.
+     *
+     * @param lazyShuffle true to shuffle as cards are drawn
+     */
+    public void setLazyShuffle(boolean lazyShuffle) {
+        materialize();
+        this.lazyShuffle = lazyShuffle;
+    }
 
     /**
-     * Adds a card to the deck.
+     * Adds a card to the bottom of the deck.
      *
      * @param card the card to be added to the deck
      * @return true if the card was added successfully
+     * @throws IllegalStateException if the deck is full
      */
     @Override
     public boolean add(Card card) {
-        return cardQueue.add(card);
+        return super.add(card);
+    }
+
+    /**
+     * Adds a card to the bottom of the deck if there is room.
+     *
+     * @param card the card to be added to the deck
+     * @return true if the card was added, false if the deck is full
+     */
+    @Override
+    public boolean offer(Card card) {
+        if (card == null) {
+            throw new NullPointerException("Cannot add a null card to the deck.");
+        }
+        if (count == cards.length) {
+            return false;
+        }
+        cards[slot(count)] = card;
+        count++;
+        return true;
     }
 
     /**
@@ -34,7 +133,7 @@ public class DrawDeck implements Queue<Card> {
      */
     @Override
     public Card remove() {
-        return cardQueue.remove();
+        return super.remove();
     }
 
     /**
@@ -44,7 +143,14 @@ public class DrawDeck implements Queue<Card> {
      */
     @Override
     public Card poll() {
-        return cardQueue.poll();
+        if (count == 0) {
+            return null;
+        }
+        settleFront();
+        Card card = cards[head];
+        head = slot(1);
+        count--;
+        return card;
     }
 
     /**
@@ -55,7 +161,7 @@ public class DrawDeck implements Queue<Card> {
      */
     @Override
     public Card element() {
-        return cardQueue.element();
+        return super.element();
     }
 
     /**
@@ -65,7 +171,11 @@ public class DrawDeck implements Queue<Card> {
      */
     @Override
     public Card peek() {
-        return cardQueue.peek();
+        if (count == 0) {
+            return null;
+        }
+        settleFront();
+        return cards[head];
     }
 
     /**
@@ -75,7 +185,7 @@ public class DrawDeck implements Queue<Card> {
      */
     @Override
     public boolean isEmpty() {
-        return cardQueue.isEmpty();
+        return count == 0;
     }
 
     /**
@@ -85,7 +195,7 @@ public class DrawDeck implements Queue<Card> {
      */
     @Override
     public int size() {
-        return cardQueue.size();
+        return count;
     }
 
     /**
@@ -93,77 +203,245 @@ public class DrawDeck implements Queue<Card> {
      */
     @Override
     public void clear() {
-        cardQueue.clear();
+        head = 0;
+        count = 0;
+        pending = 0;
     }
 
     /**
-     * Populates the deck with a full set of playing cards.
+     * Adds a run of cards to the bottom of the deck with at most two array copies.
+     *
+     * @param source the array holding the cards
+     * @param from the index of the first card to add
+     * @param length the number of cards to add
+     * @throws IllegalStateException if the deck does not have room for the cards
+     */
+    void addAll(Card[] source, int from, int length) {
+        if (count + length > cards.length) {
+            throw new IllegalStateException("Deck does not have room for the cards.");
+        }
+        int tail = slot(count);
+        int firstPart = Math.min(length, cards.length - tail);
+        System.arraycopy(source, from, cards, tail, firstPart);
+        System.arraycopy(source, from + firstPart, cards, 0, length - firstPart);
+        count += length;
+    }
+
+    /**
+     * Replaces the contents of the deck with the given cards, in order from the front.
+     *
+     * @param cardIndices the indices of the cards, front first
+     * @param length the number of cards to load
+     * @throws IllegalArgumentException if there are more cards than the deck can hold
+     */
+    public void load(int[] cardIndices, int length) {
+        if (length > cards.length) {
+            throw new IllegalArgumentException("Deck cannot hold " + length + " cards.");
+        }
+        for (int i = 0; i < length; i++) {
+            cards[i] = Card.ofIndex(cardIndices[i]);
+        }
+        head = 0;
+        count = length;
+        pending = 0;
+    }
+
+    /**
+     * Copies the indices of the cards in the deck, front first. Any deferred shuffle is completed first.
+     *
+     * @param destination the array that receives the indices
+     * @return the number of cards copied
+     */
+    public int copyIndices(int[] destination) {
+        materialize();
+        for (int i = 0; i < count; i++) {
+            destination[i] = cards[slot(i)].getIndex();
+        }
+        return count;
+    }
+
+    /**
+     * Populates the deck with as many full sets of playing cards as it was constructed for.
+     *
+     * @throws IllegalStateException if the deck does not have room for the sets
      */
     public void build() {
-        for (Card.Suit suit : Card.Suit.values()) {
-            for (Card.Rank rank : Card.Rank.values()) {
-                cardQueue.add(new Card(suit, rank));
+        build(decks);
+    }
+
+    /**
+     * Populates the deck with the given number of full sets of playing cards, one set after another.
+     *
+     * @param sets the number of sets to add
+     * @throws IllegalStateException if the deck does not have room for the sets
+     */
+    public void build(int sets) {
+        if (count + sets * Card.DECK_SIZE > cards.length) {
+            throw new IllegalStateException("Deck does not have room for " + sets + " full sets of cards.");
+        }
+        for (int set = 0; set < sets; set++) {
+            for (int index = 0; index < Card.DECK_SIZE; index++) {
+                cards[slot(count)] = Card.ofIndex(index);
+                count++;
             }
         }
     }
 
     /**
-     * Shuffles the deck randomly.
+     * Shuffles the deck randomly. In lazy shuffle mode the work is deferred until cards are drawn.
      */
     public void shuffle() {
-        List<Card> cardList = new ArrayList<>(cardQueue);
-        Collections.shuffle(cardList);
-        cardQueue.clear();
-        cardQueue.addAll(cardList);
+        pending = count;
+        if (!lazyShuffle) {
+            materialize();
+        }
     }
 
-    @Override
-    public boolean offer(Card card) {
-        return cardQueue.offer(card);
+    /**
+     * Deals cards round-robin, as if each player in turn took one card from the front
+     * of the deck until every player held the requested number of cards.
+     *
+     * @param players the number of players to deal to
+     * @param cardsEach the number of cards each player receives
+     * @return the dealt cards, where player p's c-th card is at index {@code p * cardsEach + c}
+     * @throws NoSuchElementException if the deck does not hold enough cards
+     */
+    public Card[] deal(int players, int cardsEach) {
+        int total = players * cardsEach;
+        if (total > count) {
+            throw new NoSuchElementException("Deck does not hold enough cards to deal.");
+        }
+        Card[] dealt = new Card[total];
+        for (int round = 0; round < cardsEach; round++) {
+            for (int player = 0; player < players; player++) {
+                dealt[player * cardsEach + round] = poll();
+            }
+        }
+        return dealt;
     }
 
+    /**
+     * Returns an iterator over the cards from the front to the bottom of the deck.
+     * Any deferred shuffle is completed first.
+     *
+     * @return an iterator over the cards in the deck
+     */
     @Override
-    public boolean contains(Object o) {
-        return cardQueue.contains(o);
-    }
+    public Iterator<Card> iterator() {
+        materialize();
+        return new Iterator<>() {
+            private int position = 0; // Position of the next card to return
+            private int last = -1; // Position of the last card returned
 
-    @Override
-    public Object[] toArray() {
-        return cardQueue.toArray();
-    }
+            @Override
+            public boolean hasNext() {
+                return position < count;
+            }
 
-    @Override
-    public boolean remove(Object o) {
-        return cardQueue.remove(o);
+            @Override
+            public Card next() {
+                if (position >= count) {
+                    throw new NoSuchElementException();
+                }
+                last = position;
+                return cards[slot(position++)];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeAt(last);
+                position = last;
+                last = -1;
+            }
+        };
     }
 
+    /**
+     * Returns the cards in the deck from front to bottom.
+     *
+     * @return an array holding the cards in the deck
+     */
     @Override
-    public boolean containsAll(java.util.Collection<?> c) {
-        return cardQueue.containsAll(c);
+    public Object[] toArray() {
+        return toArray(new Card[count]);
     }
 
+    /**
+     * Returns the cards in the deck from front to bottom in an array of the requested type.
+     *
+     * @param a the array to fill, or an array of the required type if it is too small
+     * @return an array holding the cards in the deck
+     */
     @Override
-    public boolean addAll(java.util.Collection<? extends Card> c) {
-        return cardQueue.addAll(c);
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        materialize();
+        if (a.length < count) {
+            a = (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), count);
+        }
+        for (int i = 0; i < count; i++) {
+            a[i] = (T) cards[slot(i)];
+        }
+        if (a.length > count) {
+            a[count] = null;
+        }
+        return a;
     }
 
-    @Override
-    public boolean removeAll(java.util.Collection<?> c) {
-        return cardQueue.removeAll(c);
+    /**
+     * Completes one step of a deferred shuffle so the front card is final.
+     */
+    private void settleFront() {
+        if (pending > 1) {
+            int swap = slot(random.nextInt(pending));
+            Card card = cards[head];
+            cards[head] = cards[swap];
+            cards[swap] = card;
+        }
+        if (pending > 0) {
+            pending--;
+        }
     }
 
-    @Override
-    public boolean retainAll(java.util.Collection<?> c) {
-        return cardQueue.retainAll(c);
+    /**
+     * Completes any deferred shuffle, so every card is in its final position.
+     */
+    private void materialize() {
+        for (int i = 0; pending > 0; i++) {
+            if (pending > 1) {
+                int from = slot(i);
+                int swap = slot(i + random.nextInt(pending));
+                Card card = cards[from];
+                cards[from] = cards[swap];
+                cards[swap] = card;
+            }
+            pending--;
+        }
     }
 
-    @Override
-    public Iterator<Card> iterator() {
-        throw new UnsupportedOperationException("Not supported yet.");
+    /**
+     * Removes the card at a position, closing the gap by shifting later cards forward.
+     *
+     * @param position the position of the card, counted from the front
+     */
+    private void removeAt(int position) {
+        for (int i = position; i < count - 1; i++) {
+            cards[slot(i)] = cards[slot(i + 1)];
+        }
+        count--;
     }
 
-    @Override
-    public <T> T[] toArray(T[] a) {
-        throw new UnsupportedOperationException("Not supported yet.");
+    /**
+     * Converts a position counted from the front of the deck into a slot of the ring buffer.
+     *
+     * @param position the position counted from the front
+     * @return the slot holding that position
+     */
+    private int slot(int position) {
+        int slot = head + position;
+        return slot < cards.length ? slot : slot - cards.length;
     }
 }
@@ -5,9 +5,21 @@ import java.util.ArrayList;
 /**
  * The Hand class represents a player's hand of cards in a card game.
  * It provides methods to add, remove, reset, and calculate the total value of the hand.
+ * <p>
+ * Alongside the ordered list of cards, the hand keeps a 64-bit mask of the card
+ * indices it holds and the point total of every suit. These are updated as cards
+ * are added and removed, so the total value of the hand is a field read. A hand dealt
+ * from several decks can hold two copies of a card; its bit stays set until the last
+ * copy is removed.
  */
 public class Hand {
+    private static final int SUIT_COUNT = Card.Suit.values().length;
+
     private final ArrayList<Card> hand;
+    private final int[] suitValues = new int[SUIT_COUNT]; // Point total of each suit
+    private long mask; // Bit i is set when the card with index i is in the hand
+    private int totalValue; // Highest suit total
+    private int duplicates; // Number of cards held that are copies of another card in the hand
 
     /**
      * Constructs an empty hand.
@@ -18,6 +30,7 @@ public class Hand {
 
     /**
      * Returns the list of cards in the hand.
+     * The list must not be modified directly, or the cached totals will be wrong.
      *
      * @return the hand as an ArrayList of Card objects
      */
@@ -32,6 +45,17 @@ public class Hand {
      */
     public void addCard(Card card) {
         hand.add(card);
+        long bit = 1L << card.getIndex();
+        if ((mask & bit) != 0) {
+            duplicates++;
+        }
+        mask |= bit;
+
+        int suit = card.getSuit().ordinal();
+        suitValues[suit] += card.getValue();
+        if (suitValues[suit] > totalValue) {
+            totalValue = suitValues[suit];
+        }
     }
 
     /**
@@ -40,7 +64,23 @@ public class Hand {
      * @param card the card to be removed
      */
     public void removeCard(Card card) {
-        hand.remove(card);
+        if (!hand.remove(card)) {
+            return;
+        }
+        if (duplicates > 0 && hand.contains(card)) {
+            duplicates--;
+        } else {
+            mask &= ~(1L << card.getIndex());
+        }
+
+        int suit = card.getSuit().ordinal();
+        suitValues[suit] -= card.getValue();
+        totalValue = suitValues[0];
+        for (int i = 1; i < SUIT_COUNT; i++) {
+            if (suitValues[i] > totalValue) {
+                totalValue = suitValues[i];
+            }
+        }
     }
 
     /**
@@ -48,6 +88,12 @@ public class Hand {
      */
     public void reset() {
         hand.clear();
+        mask = 0;
+        totalValue = 0;
+        duplicates = 0;
+        for (int i = 0; i < SUIT_COUNT; i++) {
+            suitValues[i] = 0;
+        }
     }
 
     /**
@@ -70,40 +116,62 @@ public class Hand {
     }
 
     /**
-     * Calculates and returns the total value of the hand.
-     * The value is calculated based on the card ranks, with aces valued at 11 by default.
+     * Checks whether the hand holds the given card.
+     *
+     * @param card the card to look for
+     * @return true if the card is in the hand
+     */
+    public boolean contains(Card card) {
+        return (mask & (1L << card.getIndex())) != 0;
+    }
+
+    /**
+     * Returns a mask of the cards in the hand, with bit i set when the card with index i is held.
+     * A card held twice sets a single bit, so the mask only identifies the hand if it has no duplicates.
+     *
+     * @return the card mask of the hand
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Checks whether the hand holds more than one copy of any card, which only happens with several decks.
+     *
+     * @return true if some card is held more than once
+     */
+    public boolean hasDuplicates() {
+        return duplicates > 0;
+    }
+
+    /**
+     * Returns the point total of the cards of one suit.
+     *
+     * @param suit the suit to total
+     * @return the sum of the values of the cards of that suit
+     */
+    public int getSuitValue(Card.Suit suit) {
+        return suitValues[suit.ordinal()];
+    }
+
+    /**
+     * Returns the point total of the cards of one suit.
+     *
+     * @param suit the ordinal of the suit to total
+     * @return the sum of the values of the cards of that suit
+     */
+    public int getSuitValue(int suit) {
+        return suitValues[suit];
+    }
+
+    /**
+     * Returns the total value of the hand, which is the highest point total of any single suit.
+     * Aces are valued at 11 and face cards at 10.
      *
      * @return the highest possible total value of the hand
      */
     public int getTotalValue() {
-        int[] values = new int[Card.Suit.values().length];
-        for (Card.Suit suit : Card.Suit.values()) {
-            values[suit.ordinal()] = 0;
-            for (Card card : hand) {
-                if (card.getSuit() == suit) {
-                    // add the value of the card to the value of the suit
-                    switch (card.getRank()) {
-                        case ACE -> values[suit.ordinal()] += 11;
-                        case TWO -> values[suit.ordinal()] += 2;
-                        case THREE -> values[suit.ordinal()] += 3;
-                        case FOUR -> values[suit.ordinal()] += 4;
-                        case FIVE -> values[suit.ordinal()] += 5;
-                        case SIX -> values[suit.ordinal()] += 6;
-                        case SEVEN -> values[suit.ordinal()] += 7;
-                        case EIGHT -> values[suit.ordinal()] += 8;
-                        case NINE -> values[suit.ordinal()] += 9;
-                        case TEN, JACK, QUEEN, KING -> values[suit.ordinal()] += 10;
-                    }
-                }
-            }
-        }
-        int maxValue = values[0];
-        for (int value : values) {
-            if (value > maxValue) {
-                maxValue = value;
-            }
-        }
-        return maxValue;
+        return totalValue;
     }
 
     /**
@@ -0,0 +1,275 @@
+package edu.guilford.gameObjects;
+
+import java.util.Arrays;
+
+/**
+ * The HandEvaluator class answers Thirty-One hand questions with table lookups.
+ * <p>
+ * When the class is loaded it computes the value of every 3-card hand (22,100 hands)
+ * and, for every 4-card hand (270,725 hands), the card that is best to discard and the
+ * value of the hand that remains. Hands are indexed by the combinatorial rank of their
+ * sorted card indices, {@code C(a,1) + C(b,2) + C(c,3) (+ C(d,4))} for {@code a < b < c < d}.
+ * The tables only hold hands of different cards. Hands that hold two copies of a card,
+ * which are only dealt when a game uses several decks, are evaluated directly instead.
+ */
+public final class HandEvaluator {
+
+    /**
+     * Number of distinct 3-card hands.
+     */
+    public static final int THREE_CARD_HANDS = 22100;
+
+    /**
+     * Number of distinct 4-card hands.
+     */
+    public static final int FOUR_CARD_HANDS = 270725;
+
+    // Binomial coefficients C(n, k) for n up to the deck size and k up to 4
+    private static final int[][] CHOOSE = new int[Card.DECK_SIZE + 1][5];
+
+    // Value of every 3-card hand, by rank
+    private static final byte[] THREE_CARD_VALUES = new byte[THREE_CARD_HANDS];
+
+    // Value after the best discard of every 4-card hand, by rank
+    private static final byte[] FOUR_CARD_VALUES = new byte[FOUR_CARD_HANDS];
+
+    // Index of the best card to discard from every 4-card hand, by rank
+    private static final byte[] FOUR_CARD_DISCARDS = new byte[FOUR_CARD_HANDS];
+
+    static {
+        for (int n = 0; n <= Card.DECK_SIZE; n++) {
+            CHOOSE[n][0] = 1;
+            for (int k = 1; k <= 4 && k <= n; k++) {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + CHOOSE[n - 1][k];
+            }
+        }
+
+        for (int c = 2; c < Card.DECK_SIZE; c++) {
+            for (int b = 1; b < c; b++) {
+                for (int a = 0; a < b; a++) {
+                    THREE_CARD_VALUES[sortedIndex(a, b, c)] = (byte) computeValue(a, b, c);
+                }
+            }
+        }
+
+        int[] cards = new int[4];
+        for (int d = 3; d < Card.DECK_SIZE; d++) {
+            for (int c = 2; c < d; c++) {
+                for (int b = 1; b < c; b++) {
+                    for (int a = 0; a < b; a++) {
+                        cards[0] = a;
+                        cards[1] = b;
+                        cards[2] = c;
+                        cards[3] = d;
+
+                        // Keep the highest remaining value, then the lowest discarded value, then the lowest index
+                        int bestValue = -1;
+                        int bestDiscard = -1;
+                        for (int drop = 0; drop < 4; drop++) {
+                            int value = THREE_CARD_VALUES[sortedIndexWithout(cards, drop)];
+                            if (value > bestValue || (value == bestValue
+                                    && Card.pointValue(cards[drop]) < Card.pointValue(bestDiscard))) {
+                                bestValue = value;
+                                bestDiscard = cards[drop];
+                            }
+                        }
+                        int index = sortedIndex(a, b, c, d);
+                        FOUR_CARD_VALUES[index] = (byte) bestValue;
+                        FOUR_CARD_DISCARDS[index] = (byte) bestDiscard;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The evaluator only has static methods.
+     */
+    private HandEvaluator() {}
+
+    /**
+     * Returns the table index of a 3-card hand. The cards must all be different.
+     *
+     * @param a the index of the first card
+     * @param b the index of the second card
+     * @param c the index of the third card
+     * @return the rank of the hand, from 0 to 22,099
+     */
+    public static int index(int a, int b, int c) {
+        int t;
+        if (a > b) { t = a; a = b; b = t; }
+        if (b > c) { t = b; b = c; c = t; }
+        if (a > b) { t = a; a = b; b = t; }
+        return sortedIndex(a, b, c);
+    }
+
+    /**
+     * Returns the table index of a 4-card hand. The cards must all be different.
+     *
+     * @param a the index of the first card
+     * @param b the index of the second card
+     * @param c the index of the third card
+     * @param d the index of the fourth card
+     * @return the rank of the hand, from 0 to 270,724
+     */
+    public static int index(int a, int b, int c, int d) {
+        int t;
+        if (a > b) { t = a; a = b; b = t; }
+        if (c > d) { t = c; c = d; d = t; }
+        if (a > c) { t = a; a = c; c = t; }
+        if (b > d) { t = b; b = d; d = t; }
+        if (b > c) { t = b; b = c; c = t; }
+        return sortedIndex(a, b, c, d);
+    }
+
+    /**
+     * Returns the Thirty-One value of a 3-card hand.
+     *
+     * @param a the index of the first card
+     * @param b the index of the second card
+     * @param c the index of the third card
+     * @return the highest point total of any single suit
+     */
+    public static int value(int a, int b, int c) {
+        if (a == b || b == c || a == c) {
+            return computeValue(a, b, c);
+        }
+        return THREE_CARD_VALUES[index(a, b, c)];
+    }
+
+    /**
+     * Returns the value of a 4-card hand after its best card is discarded.
+     *
+     * @param a the index of the first card
+     * @param b the index of the second card
+     * @param c the index of the third card
+     * @param d the index of the fourth card
+     * @return the highest value of any 3 of the cards
+     */
+    public static int bestValue(int a, int b, int c, int d) {
+        if (hasRepeats(a, b, c, d)) {
+            return computeBest(a, b, c, d) >> 8;
+        }
+        return FOUR_CARD_VALUES[index(a, b, c, d)];
+    }
+
+    /**
+     * Returns the best card to discard from a 4-card hand. Among discards that leave the
+     * same value, the card with the lowest point value, then the lowest index, is chosen.
+     *
+     * @param a the index of the first card
+     * @param b the index of the second card
+     * @param c the index of the third card
+     * @param d the index of the fourth card
+     * @return the index of the card to discard
+     */
+    public static int bestDiscard(int a, int b, int c, int d) {
+        if (hasRepeats(a, b, c, d)) {
+            return computeBest(a, b, c, d) & 0xff;
+        }
+        return FOUR_CARD_DISCARDS[index(a, b, c, d)];
+    }
+
+    /**
+     * Returns the value of a 3-card hand.
+     *
+     * @param hand a hand holding exactly 3 cards
+     * @return the highest point total of any single suit
+     */
+    public static int value(Hand hand) {
+        return value(hand.getCard(0).getIndex(), hand.getCard(1).getIndex(), hand.getCard(2).getIndex());
+    }
+
+    /**
+     * Returns the value a 3-card hand would have after taking a card and discarding its best card.
+     *
+     * @param hand a hand holding exactly 3 cards
+     * @param candidate the card that would be taken
+     * @return the best value of the hand after taking the candidate
+     */
+    public static int drawValue(Hand hand, Card candidate) {
+        return bestValue(hand.getCard(0).getIndex(), hand.getCard(1).getIndex(),
+                hand.getCard(2).getIndex(), candidate.getIndex());
+    }
+
+    /**
+     * Returns the best card to discard from a 4-card hand.
+     *
+     * @param hand a hand holding exactly 4 cards
+     * @return the card to discard
+     */
+    public static Card bestDiscard(Hand hand) {
+        return Card.ofIndex(bestDiscard(hand.getCard(0).getIndex(), hand.getCard(1).getIndex(),
+                hand.getCard(2).getIndex(), hand.getCard(3).getIndex()));
+    }
+
+    /**
+     * Returns the rank of a sorted 3-card hand.
+     */
+    private static int sortedIndex(int a, int b, int c) {
+        return a + CHOOSE[b][2] + CHOOSE[c][3];
+    }
+
+    /**
+     * Returns the rank of a sorted 4-card hand.
+     */
+    private static int sortedIndex(int a, int b, int c, int d) {
+        return a + CHOOSE[b][2] + CHOOSE[c][3] + CHOOSE[d][4];
+    }
+
+    /**
+     * Returns the rank of the sorted 3-card hand left after dropping one card of a sorted 4-card hand.
+     */
+    private static int sortedIndexWithout(int[] cards, int drop) {
+        return switch (drop) {
+            case 0 -> sortedIndex(cards[1], cards[2], cards[3]);
+            case 1 -> sortedIndex(cards[0], cards[2], cards[3]);
+            case 2 -> sortedIndex(cards[0], cards[1], cards[3]);
+            default -> sortedIndex(cards[0], cards[1], cards[2]);
+        };
+    }
+
+    /**
+     * Checks whether any two of four card indices are the same.
+     */
+    private static boolean hasRepeats(int a, int b, int c, int d) {
+        return a == b || a == c || a == d || b == c || b == d || c == d;
+    }
+
+    /**
+     * Chooses the best discard of a 4-card hand without the tables, with the same tie rules.
+     *
+     * @return the value that remains shifted left by 8 bits, ORed with the index of the discarded card
+     */
+    private static int computeBest(int a, int b, int c, int d) {
+        int[] cards = {a, b, c, d};
+        Arrays.sort(cards);
+        int bestValue = -1;
+        int bestDiscard = -1;
+        for (int drop = 0; drop < 4; drop++) {
+            int value = switch (drop) {
+                case 0 -> computeValue(cards[1], cards[2], cards[3]);
+                case 1 -> computeValue(cards[0], cards[2], cards[3]);
+                case 2 -> computeValue(cards[0], cards[1], cards[3]);
+                default -> computeValue(cards[0], cards[1], cards[2]);
+            };
+            if (value > bestValue || (value == bestValue
+                    && Card.pointValue(cards[drop]) < Card.pointValue(bestDiscard))) {
+                bestValue = value;
+                bestDiscard = cards[drop];
+            }
+        }
+        return bestValue << 8 | bestDiscard;
+    }
+
+    /**
+     * Computes the value of a 3-card hand by totalling each suit.
+     */
+    private static int computeValue(int a, int b, int c) {
+        int[] suitValues = new int[4];
+        suitValues[Card.suitOf(a)] += Card.pointValue(a);
+        suitValues[Card.suitOf(b)] += Card.pointValue(b);
+        suitValues[Card.suitOf(c)] += Card.pointValue(c);
+        return Math.max(Math.max(suitValues[0], suitValues[1]), Math.max(suitValues[2], suitValues[3]));
+    }
+}
@@ -0,0 +1,17 @@
+package edu.guilford.gameObjects;
+
+/**
+ * A Shuffler puts the draw deck into the order a game should use, in place of a random shuffle.
+ * It is used to replay recorded games and to give several games the same deals.
+ */
+public interface Shuffler {
+
+    /**
+     * Orders the cards of the draw deck.
+     *
+     * @param drawDeck the draw deck, holding the cards to be ordered
+     * @param recycled {@code true} if the deck was refilled from the discard deck during a round,
+     *                 {@code false} if it was freshly built at the start of a round
+     */
+    void shuffle(DrawDeck drawDeck, boolean recycled);
+}
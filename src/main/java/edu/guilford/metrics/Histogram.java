@@ -0,0 +1,94 @@
+package edu.guilford.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Histogram class counts non-negative values, such as decision latencies in nanoseconds,
+ * in power-of-two buckets. Bucket {@code b} holds values from {@code 2^(b-1)} up to {@code 2^b - 1},
+ * and bucket 0 holds zero, so recording a value is one leading-zero count and one atomic increment.
+ * Values may be recorded from several threads at once.
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 65;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Records a value. Negative values are counted as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+        count.increment();
+        sum.add(value);
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     *
+     * @return the mean, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns an upper bound of a percentile: the largest value of the bucket that holds it.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the upper bound, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += buckets.get(b);
+        }
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += buckets.get(b);
+            if (seen >= rank && seen > 0) {
+                return b == 0 ? 0 : b == 64 ? Long.MAX_VALUE : (1L << b) - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) {
+            buckets.set(b, 0);
+        }
+        count.reset();
+        sum.reset();
+    }
+
+    /**
+     * Returns the count, mean and upper bounds of the median, 99th percentile and maximum.
+     *
+     * @return a one-line summary
+     */
+    @Override
+    public String toString() {
+        return String.format("count %d | mean %.1f | p50 <= %d | p99 <= %d | max <= %d",
+                getCount(), getMean(), getPercentile(50), getPercentile(99), getPercentile(100));
+    }
+}
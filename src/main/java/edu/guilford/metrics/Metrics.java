@@ -0,0 +1,188 @@
+package edu.guilford.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.guilford.playerModels.Player;
+
+/**
+ * The Metrics class collects counters and histograms from every game played in the JVM: rounds,
+ * turns per round, reshuffles of the draw deck, knocks and double-life losses, how often players
+ * draw from the discard pile, and the latency of each player model's decisions.
+ * <p>
+ * Metrics are off unless the JVM is started with {@code -Dthirtyone.metrics=true}. Every call site
+ * checks {@link #ENABLED} first, and because it is a static final field the JIT compiler folds the
+ * check to a constant and drops the disabled code, so metrics cost nothing when they are off.
+ */
+public final class Metrics {
+
+    /** Whether metrics are collected, read once from the {@code thirtyone.metrics} system property. */
+    public static final boolean ENABLED = Boolean.getBoolean("thirtyone.metrics");
+
+    /**
+     * The decisions a player is asked to make, each timed separately.
+     */
+    public enum Decision {
+        /** {@link Player#requestKnock()} */
+        KNOCK,
+        /** {@link Player#requestDrawLocation(edu.guilford.gameObjects.Card)} */
+        DRAW_LOCATION,
+        /** {@link Player#requestDiscardLocation()} */
+        DISCARD_LOCATION,
+        /** {@link Player#requestDiscardCard()} */
+        DISCARD_CARD
+    }
+
+    private static final LongAdder ROUNDS = new LongAdder();
+    private static final Histogram TURNS_PER_ROUND = new Histogram();
+    private static final LongAdder RESHUFFLES = new LongAdder();
+    private static final LongAdder DOUBLE_LOSSES = new LongAdder();
+    private static final LongAdder DRAWS = new LongAdder();
+    private static final LongAdder DISCARD_DRAWS = new LongAdder();
+    private static final Map<String, LongAdder> KNOCKS = new ConcurrentHashMap<>();
+
+    // Decision latency histograms of each model, indexed by decision
+    private static final ClassValue<Histogram[]> LATENCIES = new ClassValue<>() {
+        @Override
+        protected Histogram[] computeValue(Class<?> model) {
+            Histogram[] histograms = new Histogram[Decision.values().length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram();
+            }
+            MODELS.put(model.getSimpleName(), histograms);
+            return histograms;
+        }
+    };
+    private static final Map<String, Histogram[]> MODELS = new ConcurrentHashMap<>();
+
+    /**
+     * The metrics only have static methods.
+     */
+    private Metrics() {}
+
+    /**
+     * Records a finished round.
+     *
+     * @param turns the number of turns played in the round, including knocks
+     */
+    public static void roundPlayed(int turns) {
+        ROUNDS.increment();
+        TURNS_PER_ROUND.record(turns);
+    }
+
+    /**
+     * Records the discard deck being recycled into an empty draw deck.
+     */
+    public static void reshuffled() {
+        RESHUFFLES.increment();
+    }
+
+    /**
+     * Records a player starting the knock sequence.
+     *
+     * @param player the player that knocked
+     */
+    public static void knocked(Player player) {
+        KNOCKS.computeIfAbsent(player.getClass().getSimpleName(), model -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records the knocking player losing two lives for having the lowest hand.
+     */
+    public static void doubleLoss() {
+        DOUBLE_LOSSES.increment();
+    }
+
+    /**
+     * Records a player drawing a card.
+     *
+     * @param fromDiscard {@code true} if the card came from the discard pile
+     */
+    public static void drew(boolean fromDiscard) {
+        DRAWS.increment();
+        if (fromDiscard) {
+            DISCARD_DRAWS.increment();
+        }
+    }
+
+    /**
+     * Records how long a player took to make a decision.
+     *
+     * @param player the player that decided
+     * @param decision the decision it made
+     * @param startNanos the value of {@link System#nanoTime()} just before the decision was asked
+     */
+    public static void decided(Player player, Decision decision, long startNanos) {
+        LATENCIES.get(player.getClass())[decision.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the latency histogram of one model's decision.
+     *
+     * @param model the player model
+     * @param decision the decision
+     * @return the histogram of decision times in nanoseconds
+     */
+    public static Histogram getLatency(Class<? extends Player> model, Decision decision) {
+        return LATENCIES.get(model)[decision.ordinal()];
+    }
+
+    /**
+     * Returns the number of rounds recorded.
+     *
+     * @return the round count
+     */
+    public static long getRounds() {
+        return ROUNDS.sum();
+    }
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    public static void reset() {
+        ROUNDS.reset();
+        TURNS_PER_ROUND.reset();
+        RESHUFFLES.reset();
+        DOUBLE_LOSSES.reset();
+        DRAWS.reset();
+        DISCARD_DRAWS.reset();
+        KNOCKS.clear();
+        for (Histogram[] histograms : MODELS.values()) {
+            for (Histogram histogram : histograms) {
+                histogram.reset();
+            }
+        }
+    }
+
+    /**
+     * Returns a report of every metric recorded so far.
+     *
+     * @return a formatted, multi-line report
+     */
+    public static String snapshot() {
+        StringBuilder sb = new StringBuilder();
+        String newline = System.lineSeparator();
+        long draws = DRAWS.sum();
+        sb.append("Rounds: ").append(ROUNDS.sum()).append(newline)
+          .append("Turns per round: ").append(TURNS_PER_ROUND).append(newline)
+          .append("Reshuffles: ").append(RESHUFFLES.sum()).append(newline)
+          .append("Double-life losses: ").append(DOUBLE_LOSSES.sum()).append(newline)
+          .append(String.format("Draws from discard: %d of %d (%.4f)", DISCARD_DRAWS.sum(), draws,
+                  draws == 0 ? 0 : (double) DISCARD_DRAWS.sum() / draws)).append(newline);
+        for (Map.Entry<String, LongAdder> knocks : new TreeMap<>(KNOCKS).entrySet()) {
+            sb.append("Knocks by ").append(knocks.getKey()).append(": ").append(knocks.getValue().sum()).append(newline);
+        }
+        for (Map.Entry<String, Histogram[]> model : new TreeMap<>(MODELS).entrySet()) {
+            for (Decision decision : Decision.values()) {
+                Histogram latency = model.getValue()[decision.ordinal()];
+                if (latency.getCount() > 0) {
+                    sb.append(model.getKey()).append(' ').append(decision).append(" ns: ")
+                      .append(latency).append(newline);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package edu.guilford.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MetricsReporter class writes a {@link Metrics#snapshot()} at a fixed period during a long campaign,
+ * either to a print stream such as {@code System.out} or appended to a file. It reports from a daemon
+ * thread, so it never keeps the JVM alive, and writes one last snapshot when it is closed. A periodic
+ * snapshot that cannot be written is reported on {@code System.err} and the next one is still attempted.
+ */
+public class MetricsReporter implements Closeable {
+
+    private final ScheduledExecutorService scheduler;
+    private final PrintStream out; // Stream receiving snapshots, or null to append to the file
+    private final Path file; // File receiving snapshots, or null to print to the stream
+
+    /**
+     * Starts reporting to a print stream.
+     *
+     * @param out the stream that receives the snapshots
+     * @param periodMillis the time between snapshots in milliseconds
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public MetricsReporter(PrintStream out, long periodMillis) {
+        this(out, null, periodMillis);
+    }
+
+    /**
+     * Starts reporting to a file. Each snapshot is appended, so the file keeps the whole history.
+     *
+     * @param file the file that receives the snapshots
+     * @param periodMillis the time between snapshots in milliseconds
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public MetricsReporter(Path file, long periodMillis) {
+        this(null, file, periodMillis);
+    }
+
+    private MetricsReporter(PrintStream out, Path file, long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Period must be positive.");
+        }
+        this.out = out;
+        this.file = file;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::reportPeriodically, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a snapshot now.
+     *
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public synchronized void report() {
+        String snapshot = "Metrics at " + LocalDateTime.now() + System.lineSeparator() + Metrics.snapshot();
+        if (out != null) {
+            out.print(snapshot);
+            out.flush();
+            return;
+        }
+        try {
+            Files.writeString(file, snapshot, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a scheduled snapshot. A periodic task that throws is cancelled, so a failed write is
+     * reported instead of ending every later snapshot.
+     */
+    private void reportPeriodically() {
+        try {
+            report();
+        } catch (UncheckedIOException e) {
+            System.err.println("Metrics snapshot could not be written: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Stops the periodic snapshots and writes a final one.
+     *
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
@@ -14,8 +14,43 @@ import edu.guilford.gameObjects.Card.Suit;
  */
 public class AdvancedModel extends Player {
 
+    /** Shared results of earlier draw decisions, or null to evaluate every decision. */
+    private TranspositionCache cache;
+
+    /**
+     * Shares a cache of draw decisions with other AdvancedModels. The draw decision depends only on
+     * the cards in hand and the discard card, so cached results are exact. FastAdvancedModel decides
+     * faster than a lookup and ignores the cache.
+     *
+     * @param cache the cache to use, or {@code null} to evaluate every decision
+     */
+    public void setCache(TranspositionCache cache) {
+        this.cache = cache;
+    }
+
     @Override
     public Deck requestDrawLocation(Card discardCard) {
+        // A hand holding two copies of a card is not identified by its mask
+        if (cache == null || hand.hasDuplicates()) {
+            return evaluateDrawLocation(discardCard);
+        }
+        long key = TranspositionCache.key(hand.getMask(), discardCard.getIndex(), 0);
+        int cached = cache.get(key);
+        if (cached != TranspositionCache.MISSING) {
+            return Deck.values()[cached];
+        }
+        Deck location = evaluateDrawLocation(discardCard);
+        cache.put(key, location.ordinal());
+        return location;
+    }
+
+    /**
+     * Takes the discard card if keeping the best three of the four cards gains enough value.
+     *
+     * @param discardCard the top card from the discard pile
+     * @return {@code Deck.DISCARD} if taking the card gains enough value, otherwise {@code Deck.DRAW}
+     */
+    private Deck evaluateDrawLocation(Card discardCard) {
         int currentValue = hand.getTotalValue();
         List<Card> tempHand = new ArrayList<>(hand.getHand());
         tempHand.add(discardCard);
@@ -78,11 +113,11 @@ public class AdvancedModel extends Player {
         } else if (handValue >= 27) {
             // Knock earlier if in mid-late game
             if (turnCounter >= 3) knock = true;
+        } else if (turnCounter > 10) {
+            knock = true; // Knock model time-out
         } else if (turnCounter > 5) {
             // Late game, more aggressive
             if (handValue >= 25) knock = true;
-        } else if (turnCounter > 10) {
-            knock = true; // Knock model time-out
         }
 
         return knock;
@@ -103,18 +138,6 @@ public class AdvancedModel extends Player {
     }
 
     private int cardValue(Card card) {
-        return switch (card.getRank()) {
-            case ACE -> 11;
-            case TWO -> 2;
-            case THREE -> 3;
-            case FOUR -> 4;
-            case FIVE -> 5;
-            case SIX -> 6;
-            case SEVEN -> 7;
-            case EIGHT -> 8;
-            case NINE -> 9;
-            case TEN, JACK, QUEEN, KING -> 10;
-            default -> 0;
-        };
+        return card.getValue();
     }
 }
\ No newline at end of file
@@ -84,19 +84,7 @@ public class BasicModel extends Player {
      * @return the card's numerical value
      */
     private int cardValue(Card card) {
-        return switch (card.getRank()) {
-            case ACE -> 11;
-            case TWO -> 2;
-            case THREE -> 3;
-            case FOUR -> 4;
-            case FIVE -> 5;
-            case SIX -> 6;
-            case SEVEN -> 7;
-            case EIGHT -> 8;
-            case NINE -> 9;
-            case TEN, JACK, QUEEN, KING -> 10;
-            default -> 0;
-        };
+        return card.getValue();
     }
 
     /**
@@ -0,0 +1,181 @@
+package edu.guilford.playerModels;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.HandEvaluator;
+
+/**
+ * The CountingModel class extends Player and decides by counting cards. It remembers every card
+ * it has seen on the discard pile, so it knows which cards can still come off the draw deck, and
+ * compares the expected value of drawing one of them with the certain value of taking the discard.
+ * <p>
+ * Expected values are memoized in a small direct-mapped cache keyed by the hand and the unseen cards,
+ * and each candidate draw is valued with a {@link HandEvaluator} lookup, so a decision takes about a
+ * microsecond however many players are at the table. When the game uses several decks the model
+ * counts the unseen copies of each card instead, and weights each candidate draw by its copies.
+ */
+public class CountingModel extends Player {
+
+    private static final int CACHE_SIZE = 1 << 12; // Number of cache entries, a power of two
+    private static final long ALL_CARDS = (1L << Card.DECK_SIZE) - 1;
+
+    // Direct-mapped cache of expected draw values
+    private final long[] cachedHands = new long[CACHE_SIZE];
+    private final long[] cachedPools = new long[CACHE_SIZE];
+    private final double[] cachedValues = new double[CACHE_SIZE];
+
+    // Unseen copies of each card, by card index, when the game uses several decks
+    private final int[] unseenCopies = new int[Card.DECK_SIZE];
+
+    /**
+     * Takes the discard card unless drawing an unseen card is expected to leave a better hand.
+     *
+     * @param discardCard the top card from the discard pile
+     * @return {@code Deck.DISCARD} if the discard card is worth at least the expected draw, otherwise {@code Deck.DRAW}
+     */
+    @Override
+    public Deck requestDrawLocation(Card discardCard) {
+        int takeValue = HandEvaluator.drawValue(hand, discardCard);
+        double expected = expectedDrawValue(discardCard.getIndex());
+        if (expected < 0 || takeValue >= expected) {
+            return Deck.DISCARD;
+        }
+        return Deck.DRAW;
+    }
+
+    @Override
+    public Deck requestDiscardLocation() {
+        return Deck.DISCARD;
+    }
+
+    /**
+     * Chooses the card whose removal leaves the most valuable hand.
+     *
+     * @return the card to discard
+     */
+    @Override
+    public Card requestDiscardCard() {
+        return HandEvaluator.bestDiscard(hand);
+    }
+
+    /**
+     * Knocks with a strong hand, or late in the round once another draw is not expected to improve a fair hand.
+     * Like AdvancedModel, it always knocks after ten turns so a round cannot run forever.
+     *
+     * @return {@code true} if the player knocks, {@code false} otherwise
+     */
+    @Override
+    public boolean requestKnock() {
+        int handValue = hand.getTotalValue();
+        turnCounter++;
+
+        if (handValue >= 29 || turnCounter > 10) {
+            knock = true;
+        } else if (handValue >= 27 && turnCounter >= 3) {
+            knock = true;
+        } else if (handValue >= 25 && turnCounter > 5) {
+            double expected = expectedDrawValue(-1);
+            if (expected >= 0 && expected - handValue < 1) {
+                knock = true;
+            }
+        }
+        return knock;
+    }
+
+    /**
+     * Returns the value this 3-card hand is expected to have after drawing an unseen card at random
+     * and discarding its best card.
+     *
+     * @param excluded the index of a card that cannot be drawn, or -1 for none
+     * @return the expected hand value, or -1 if no card is unseen
+     */
+    private double expectedDrawValue(int excluded) {
+        if (discardDeck != null && discardDeck.getDecks() > 1) {
+            return expectedCopiesDrawValue();
+        }
+        long pool = unseenCards();
+        if (excluded >= 0) {
+            pool &= ~(1L << excluded);
+        }
+        return pool == 0 ? -1 : expectedDrawValue(pool);
+    }
+
+    /**
+     * Returns the cards whose place is unknown: everything not in this hand, on the discard pile,
+     * or taken from the discard pile by another player.
+     *
+     * @return the unseen cards as a mask of card indices
+     */
+    private long unseenCards() {
+        long seen = hand.getMask();
+        if (discardDeck != null) {
+            seen |= discardDeck.getMask() | discardDeck.getTakenMask();
+        }
+        return ALL_CARDS & ~seen;
+    }
+
+    /**
+     * Returns the value this 3-card hand is expected to have after drawing one of the pool's cards
+     * at random and discarding its best card.
+     *
+     * @param pool the cards that may be drawn, as a mask of card indices
+     * @return the expected hand value
+     */
+    private double expectedDrawValue(long pool) {
+        long handMask = hand.getMask();
+        long hash = (handMask * 0x9E3779B97F4A7C15L) ^ (pool * 0xC2B2AE3D27D4EB4FL);
+        int slot = (int) (hash ^ (hash >>> 32)) & (CACHE_SIZE - 1);
+
+        // A hand holding two copies of a card is not identified by its mask
+        boolean cacheable = !hand.hasDuplicates();
+        if (cacheable && cachedHands[slot] == handMask && cachedPools[slot] == pool) {
+            return cachedValues[slot];
+        }
+
+        int a = hand.getCard(0).getIndex();
+        int b = hand.getCard(1).getIndex();
+        int c = hand.getCard(2).getIndex();
+        int total = 0;
+        for (long cards = pool; cards != 0; cards &= cards - 1) {
+            total += HandEvaluator.bestValue(a, b, c, Long.numberOfTrailingZeros(cards));
+        }
+        double expected = (double) total / Long.bitCount(pool);
+
+        if (cacheable) {
+            cachedHands[slot] = handMask;
+            cachedPools[slot] = pool;
+            cachedValues[slot] = expected;
+        }
+        return expected;
+    }
+
+    /**
+     * Returns the expected hand value after a draw when the game uses several decks. Each card is
+     * weighted by its unseen copies: the copies in all the decks, less those in this hand, on the
+     * discard pile, or taken from it by another player. The result is not cached.
+     *
+     * @return the expected hand value, or -1 if no card is unseen
+     */
+    private double expectedCopiesDrawValue() {
+        int decks = discardDeck.getDecks();
+        for (int index = 0; index < Card.DECK_SIZE; index++) {
+            unseenCopies[index] = decks - discardDeck.copiesOf(index) - discardDeck.takenCopiesOf(index);
+        }
+        for (int i = 0; i < hand.size(); i++) {
+            unseenCopies[hand.getCard(i).getIndex()]--;
+        }
+
+        int a = hand.getCard(0).getIndex();
+        int b = hand.getCard(1).getIndex();
+        int c = hand.getCard(2).getIndex();
+        long total = 0;
+        int count = 0;
+        for (int index = 0; index < Card.DECK_SIZE; index++) {
+            int copies = unseenCopies[index];
+            if (copies > 0) {
+                total += (long) copies * HandEvaluator.bestValue(a, b, c, index);
+                count += copies;
+            }
+        }
+        return count == 0 ? -1 : (double) total / count;
+    }
+}
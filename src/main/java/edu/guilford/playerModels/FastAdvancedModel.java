@@ -0,0 +1,97 @@
+package edu.guilford.playerModels;
+
+import edu.guilford.gameObjects.Card;
+
+/**
+ * The FastAdvancedModel class makes exactly the same decisions as AdvancedModel, but evaluates
+ * candidate hands from the suit totals the hand already keeps instead of building temporary
+ * lists, maps and streams. Its decisions allocate no memory.
+ */
+public class FastAdvancedModel extends AdvancedModel {
+
+    /** Scratch suit totals reused by every decision. */
+    private final int[] suitValues = new int[Card.Suit.values().length];
+
+    /**
+     * Determines whether to take the discard card, using the same dynamic threshold as AdvancedModel.
+     *
+     * @param discardCard the top card from the discard pile
+     * @return {@code Deck.DISCARD} if taking the card gains enough value, otherwise {@code Deck.DRAW}
+     */
+    @Override
+    public Deck requestDrawLocation(Card discardCard) {
+        int currentValue = hand.getTotalValue();
+        loadSuitValues();
+        suitValues[discardCard.getSuit().ordinal()] += discardCard.getValue();
+
+        // Try dropping each card of the hand, then the discard card itself
+        int bestNewMax = maxSuitValueWithout(discardCard);
+        for (int i = 0; i < hand.size(); i++) {
+            int maxSuitSum = maxSuitValueWithout(hand.getCard(i));
+            if (maxSuitSum > bestNewMax) {
+                bestNewMax = maxSuitSum;
+            }
+        }
+
+        // Dynamic threshold: higher threshold when current hand is weaker
+        int requiredGain = Math.max(1, (31 - currentValue) / 10);
+        if (bestNewMax - currentValue >= requiredGain) {
+            return Deck.DISCARD;
+        }
+        return Deck.DRAW;
+    }
+
+    /**
+     * Chooses the card whose removal leaves the highest suit total, preferring the lowest-value
+     * card on ties and the earliest card in the hand after that.
+     *
+     * @return the card to discard
+     */
+    @Override
+    public Card requestDiscardCard() {
+        loadSuitValues();
+        Card bestDiscard = null;
+        int bestMaxSum = -1;
+        int minValue = Integer.MAX_VALUE;
+
+        for (int i = 0; i < hand.size(); i++) {
+            Card candidate = hand.getCard(i);
+            int currentMax = maxSuitValueWithout(candidate);
+
+            if (currentMax > bestMaxSum || (currentMax == bestMaxSum && candidate.getValue() < minValue)) {
+                bestMaxSum = currentMax;
+                bestDiscard = candidate;
+                minValue = candidate.getValue();
+            }
+        }
+
+        return bestDiscard != null ? bestDiscard : hand.getCard(0);
+    }
+
+    /**
+     * Copies the hand's suit totals into the scratch array.
+     */
+    private void loadSuitValues() {
+        for (int suit = 0; suit < suitValues.length; suit++) {
+            suitValues[suit] = hand.getSuitValue(suit);
+        }
+    }
+
+    /**
+     * Returns the highest suit total in the scratch array once one card is taken out.
+     *
+     * @param card the card to leave out
+     * @return the highest suit total without the card
+     */
+    private int maxSuitValueWithout(Card card) {
+        int cardSuit = card.getSuit().ordinal();
+        int max = 0;
+        for (int suit = 0; suit < suitValues.length; suit++) {
+            int value = suit == cardSuit ? suitValues[suit] - card.getValue() : suitValues[suit];
+            if (value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+}
@@ -3,16 +3,25 @@ package edu.guilford.playerModels;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 
+import edu.guilford.gameObjects.Card;
 import edu.guilford.gameObjects.DrawDeck;
 
 /**
  * The Group class manages a list of Player objects, facilitating player turns,
  * dealing cards, and determining game state conditions.
+ * <p>
+ * Players still in the game are linked in a ring of seats, and the group keeps count
+ * of the active and knocked players. Players report changes to their lives and knock
+ * state, so turn order and knock queries take constant time however many seats there are.
  */
 public class Group {
     
     private ArrayList<Player> players = new ArrayList<>();
     private int playerCounter = 0; // Tracks the current player index
+    private int[] nextSeat = new int[0]; // Next active seat after each seat
+    private int[] previousSeat = new int[0]; // Previous active seat before each active seat
+    private int activePlayers = 0; // Number of players with remaining lives
+    private int knockedPlayers = 0; // Number of active players that have knocked
 
     /**
      * Constructs a Group with a predefined list of players.
@@ -21,6 +30,7 @@ public class Group {
      */
     public Group(ArrayList<Player> players) {
         this.players = players;
+        buildRing();
     }
 
     /**
@@ -35,6 +45,7 @@ public class Group {
                 players.add(playerClass.getDeclaredConstructor().newInstance());
             }
         } catch (IllegalAccessException | IllegalArgumentException | InstantiationException | NoSuchMethodException | SecurityException | InvocationTargetException e) {}
+        buildRing();
     }
 
     /**
@@ -46,14 +57,20 @@ public class Group {
      * Retrieves the next player who is still in the game (has remaining lives).
      *
      * @return the next active player
+     * @throws IllegalStateException if no player has lives remaining
      */
     public Player getNextPlayer() {
-        do {
-            playerCounter++;
-            if (playerCounter == players.size()) {
-                playerCounter = 0;
-            }
-        } while (players.get(playerCounter).getLives() == 0);
+        checkRing();
+        if (activePlayers == 0) {
+            throw new IllegalStateException("No players remain in the game.");
+        }
+
+        // Seats that left the ring keep their old link, which leads on to an active seat
+        int seat = nextSeat[playerCounter];
+        while (players.get(seat).getLives() <= 0) {
+            seat = nextSeat[seat];
+        }
+        playerCounter = seat;
 
         return players.get(playerCounter);
     }
@@ -62,6 +79,7 @@ public class Group {
      * Resets all players by clearing their hands and resetting the player counter.
      */
     public void resetPlayers() {
+        checkRing();
         for (Player player : players) {
             player.clearHand();
         }
@@ -75,6 +93,7 @@ public class Group {
      */
     public void addPlayer(Player player) {
         players.add(player);
+        buildRing();
     }
 
     /**
@@ -101,12 +120,8 @@ public class Group {
      * @return {@code true} if all active players have knocked, otherwise {@code false}
      */
     public boolean knockComplete() {
-        for (Player player : players) {
-            if (!player.getKnock() && player.getLives() > 0) {
-                return false;
-            }
-        }
-        return true;
+        checkRing();
+        return knockedPlayers >= activePlayers;
     }
 
     /**
@@ -115,12 +130,8 @@ public class Group {
      * @return {@code true} if at least one player has knocked, otherwise {@code false}
      */
     public boolean knockStarted() {
-        for (Player player : players) {
-            if (player.getKnock() && player.getLives() > 0) {
-                return true;
-            }
-        }
-        return false;
+        checkRing();
+        return knockedPlayers > 0;
     }
 
     /**
@@ -138,9 +149,11 @@ public class Group {
      * @param drawDeck the deck from which cards are drawn
      */
     public void dealCards(DrawDeck drawDeck) {
-        for (int i = 0; i < 3; i++) {
-            for (Player player : players) {
-                player.addCard(drawDeck.poll());
+        Card[] dealt = drawDeck.deal(players.size(), 3);
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            for (int j = 0; j < 3; j++) {
+                player.addCard(dealt[i * 3 + j]);
             }
         }
     }
@@ -160,13 +173,8 @@ public class Group {
      * @return the count of players still active
      */
     public int playersRemaining() {
-        int playersRemain = 0;
-        for (Player player : players) {
-            if (player.getLives() > 0) {
-                playersRemain++;
-            }
-        }
-        return playersRemain;
+        checkRing();
+        return activePlayers;
     }
 
     /**
@@ -184,4 +192,79 @@ public class Group {
         }
         return -1;
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates the knock count when a player's knock state changes.
+     *
+     * @param knock {@code true} if the player knocked, {@code false} if the knock was cleared
+     */
+    void knockChanged(boolean knock) {
+        knockedPlayers += knock ? 1 : -1;
+    }
+
+    /**
+     * Removes a player who has run out of lives from the ring of active seats.
+     *
+     * @param player the eliminated player
+     */
+    void playerEliminated(Player player) {
+        int seat = player.seat;
+        nextSeat[previousSeat[seat]] = nextSeat[seat];
+        previousSeat[nextSeat[seat]] = previousSeat[seat];
+        activePlayers--;
+        if (player.knockCounted) {
+            player.knockCounted = false;
+            knockedPlayers--;
+        }
+    }
+
+    /**
+     * Rebuilds the ring if players were added to the list returned by {@link #getPlayers()}.
+     */
+    private void checkRing() {
+        if (nextSeat.length != players.size()) {
+            buildRing();
+        }
+    }
+
+    /**
+     * Seats every player, links the active seats into a ring, and recounts the active
+     * and knocked players.
+     */
+    private void buildRing() {
+        int size = players.size();
+        nextSeat = new int[size];
+        previousSeat = new int[size];
+        activePlayers = 0;
+        knockedPlayers = 0;
+
+        for (int seat = 0; seat < size; seat++) {
+            Player player = players.get(seat);
+            player.group = this;
+            player.seat = seat;
+            player.knockCounted = player.getLives() > 0 && player.getKnock();
+            if (player.getLives() > 0) {
+                activePlayers++;
+            }
+            if (player.knockCounted) {
+                knockedPlayers++;
+            }
+        }
+
+        // Walk the seats backwards twice, so every seat links to the next active seat around the table
+        int next = -1;
+        for (int i = 2 * size - 1; i >= 0; i--) {
+            int seat = i % size;
+            boolean active = players.get(seat).getLives() > 0;
+            if (i < size && next >= 0) {
+                nextSeat[seat] = next;
+                if (active) {
+                    previousSeat[next] = seat;
+                }
+            }
+            if (active) {
+                next = seat;
+            }
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package edu.guilford.playerModels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinTask;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.HandEvaluator;
+
+/**
+ * The MonteCarloModel class extends Player and decides by flat determinized Monte Carlo: it builds no
+ * search tree, but scores each of its immediate choices over many sampled deals.
+ * <p>
+ * For every knock, draw and discard decision it repeatedly samples the cards it cannot see: the other
+ * players' hands and the order of the draw deck, drawn from every card that is not in its own hand or
+ * on the discard pile. When the game uses several decks, each card is sampled as many times as it has
+ * copies left. On each sample it plays every one of its choices and then the rest of the round,
+ * with a fast {@link RulePolicy} for every seat. Trying all choices on the same sample compares them on
+ * the same luck, which needs far fewer samples than trying one choice per sample. The choice that cost
+ * the fewest lives is played, unless it is no better than the choice the rollout policy would make.
+ * <p>
+ * A decision stops after a number of samples or a wall-clock budget, whichever comes first. With more
+ * than one thread the samples are split between independent searches on the common fork-join pool,
+ * whose statistics are added together at the end. A model constructed with a seed makes the same
+ * decisions in a seeded game as long as it has no time budget.
+ */
+public class MonteCarloModel extends Player {
+
+    private static final int MAX_SAMPLED_TURNS = 10; // Most draws an opponent's sampled hand is improved by
+
+    // Kinds of decision
+    private static final int KNOCK = 0; // Actions: 0 keeps playing, 1 knocks
+    private static final int DRAW = 1; // Actions: 0 draws from the draw deck, 1 takes the discard card
+    private static final int DISCARD = 2; // Actions: the position of the card to discard
+
+    private final int iterations; // Largest number of samples per decision
+    private final long nanos; // Wall-clock budget per decision, or 0 for none
+    private final int threads; // Number of independent searches per decision
+    private final RulePolicy rolloutPolicy; // Plays out every sample
+    private final SplittableRandom random; // Seeds the searches
+
+    /**
+     * Constructs a model that takes 1000 samples per decision on one thread, playing them out with AdvancedModel's rules.
+     */
+    public MonteCarloModel() {
+        this(1000, 0, 1, RulePolicy.ADVANCED);
+    }
+
+    /**
+     * Constructs a model with the given search budget.
+     *
+     * @param iterations the largest number of samples per decision
+     * @param millis the wall-clock budget per decision in milliseconds, or 0 for no time limit
+     * @param threads the number of searches to run in parallel
+     * @param rolloutPolicy the rules every seat follows while a sample is played out
+     * @throws IllegalArgumentException if the iterations or threads are less than 1, or the time budget is negative
+     */
+    public MonteCarloModel(int iterations, long millis, int threads, RulePolicy rolloutPolicy) {
+        this(iterations, millis, threads, rolloutPolicy, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a model with the given search budget whose samples are drawn from a seeded generator.
+     *
+     * @param iterations the largest number of samples per decision
+     * @param millis the wall-clock budget per decision in milliseconds, or 0 for no time limit
+     * @param threads the number of searches to run in parallel
+     * @param rolloutPolicy the rules every seat follows while a sample is played out
+     * @param seed the seed of the samples
+     * @throws IllegalArgumentException if the iterations or threads are less than 1, or the time budget is negative
+     */
+    public MonteCarloModel(int iterations, long millis, int threads, RulePolicy rolloutPolicy, long seed) {
+        this(iterations, millis, threads, rolloutPolicy, new SplittableRandom(seed));
+    }
+
+    private MonteCarloModel(int iterations, long millis, int threads, RulePolicy rolloutPolicy, SplittableRandom random) {
+        if (iterations < 1 || threads < 1 || millis < 0) {
+            throw new IllegalArgumentException("Iterations and threads must be at least 1 and the time budget not negative.");
+        }
+        this.iterations = iterations;
+        this.nanos = millis * 1000000;
+        this.threads = threads;
+        this.rolloutPolicy = rolloutPolicy;
+        this.random = random;
+    }
+
+    /**
+     * Searches whether knocking now costs fewer lives than playing on.
+     * Like AdvancedModel, it always knocks after ten turns so a round cannot run forever.
+     *
+     * @return {@code true} if the player knocks, {@code false} otherwise
+     */
+    @Override
+    public boolean requestKnock() {
+        turnCounter++;
+        int top = discardDeck == null || discardDeck.isEmpty() ? -1 : discardDeck.peek().getIndex();
+        if (turnCounter > 10 || search(KNOCK, top) == 1) {
+            knock = true;
+        }
+        return knock;
+    }
+
+    /**
+     * Searches whether taking the discard card costs fewer lives than drawing.
+     *
+     * @param discardCard the top card from the discard pile
+     * @return the deck that was searched to be better
+     */
+    @Override
+    public Deck requestDrawLocation(Card discardCard) {
+        return search(DRAW, discardCard.getIndex()) == 1 ? Deck.DISCARD : Deck.DRAW;
+    }
+
+    @Override
+    public Deck requestDiscardLocation() {
+        return Deck.DISCARD;
+    }
+
+    /**
+     * Searches which card is best to discard.
+     *
+     * @return the card to discard
+     */
+    @Override
+    public Card requestDiscardCard() {
+        int top = discardDeck == null || discardDeck.isEmpty() ? -1 : discardDeck.peek().getIndex();
+        return hand.getCard(search(DISCARD, top));
+    }
+
+    /**
+     * Runs the searches for one decision and returns the action with the highest total reward.
+     *
+     * @param kind the kind of decision
+     * @param top the index of the top card of the discard pile, or -1 if there is none
+     * @return the chosen action
+     */
+    private int search(int kind, int top) {
+        int actions = kind == DISCARD ? hand.size() : 2;
+        if (group == null || discardDeck == null || (top < 0 && kind != DISCARD)) {
+            return fallback(kind, top);
+        }
+        Table table = new Table(this, kind, top);
+
+        long deadline = nanos == 0 ? Long.MAX_VALUE : System.nanoTime() + nanos;
+        int perThread = (iterations + threads - 1) / threads;
+        double[] rewards = new double[actions];
+        if (threads == 1) {
+            Search search = new Search(table, actions, random.split());
+            search.call(perThread, deadline);
+            search.addRewards(rewards);
+        } else {
+            List<ForkJoinTask<Search>> tasks = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                Search search = new Search(table, actions, random.split());
+                tasks.add(ForkJoinTask.adapt(() -> search.call(perThread, deadline), search));
+            }
+            for (int i = 1; i < threads; i++) {
+                tasks.get(i).fork();
+            }
+            tasks.get(0).invoke();
+            for (int i = 0; i < threads; i++) {
+                tasks.get(i).join().addRewards(rewards);
+            }
+        }
+
+        // Every search took the same samples for every action, so the totals compare directly
+        int best = fallback(kind, top);
+        for (int action = 0; action < actions; action++) {
+            if (rewards[action] > rewards[best]) {
+                best = action;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Decides with the rollout policy alone. It is the default for ties, and the decision of a player
+     * that is not seated in a game.
+     */
+    private int fallback(int kind, int top) {
+        int[] cards = new int[4];
+        int[] suits = new int[4];
+        for (int i = 0; i < hand.size(); i++) {
+            cards[i] = hand.getCard(i).getIndex();
+            suits[Card.suitOf(cards[i])] += Card.pointValue(cards[i]);
+        }
+        return switch (kind) {
+            case KNOCK -> rolloutPolicy.knocks(hand.getTotalValue(), turnCounter) ? 1 : 0;
+            case DRAW -> rolloutPolicy.takesDiscard(cards, 0, suits, 0, top) ? 1 : 0;
+            default -> rolloutPolicy.discardPosition(cards, 0, suits, 0);
+        };
+    }
+
+    /**
+     * What the player knows about the table when a decision is made. It is shared read-only by the searches.
+     */
+    private static final class Table {
+        final int kind;
+        final int seats;
+        final int me;
+        final int top; // Top card of the discard pile, or -1 if the pile is empty
+        final int decks; // Number of full sets of cards in the game
+        final int[] pileCopies; // Copies of each card on the discard pile, including the top card
+        final int[] hand; // This player's cards, in hand order
+        final boolean[] active;
+        final boolean[] knocked;
+        final int[] turnCounters;
+        final int knocker; // Seat that started the knock, or -1
+
+        Table(MonteCarloModel player, int kind, int top) {
+            this.kind = kind;
+            this.top = top;
+            List<Player> players = player.group.getPlayers();
+            seats = players.size();
+            me = player.seat;
+            decks = player.discardDeck.getDecks();
+            pileCopies = new int[Card.DECK_SIZE];
+            for (int index = 0; index < Card.DECK_SIZE; index++) {
+                pileCopies[index] = player.discardDeck.copiesOf(index);
+            }
+            hand = new int[player.hand.size()];
+            for (int i = 0; i < hand.length; i++) {
+                hand[i] = player.hand.getCard(i).getIndex();
+            }
+            active = new boolean[seats];
+            knocked = new boolean[seats];
+            turnCounters = new int[seats];
+            for (int seat = 0; seat < seats; seat++) {
+                Player other = players.get(seat);
+                active[seat] = other.getLives() > 0;
+                knocked[seat] = active[seat] && other.getKnock();
+                turnCounters[seat] = other.turnCounter;
+            }
+
+            // Players knock in turn order after the knocker, so the knocker is the first of the knocked seats before this one
+            int first = -1;
+            for (int seat = previous(me); knocked[seat] && seat != me; seat = previous(seat)) {
+                first = seat;
+            }
+            knocker = first;
+        }
+
+        private int previous(int seat) {
+            do {
+                seat = seat == 0 ? seats - 1 : seat - 1;
+            } while (!active[seat]);
+            return seat;
+        }
+    }
+
+    /**
+     * One search: repeated samples of the hidden cards, on which every action is played out on primitive arrays.
+     */
+    private final class Search {
+        private final Table table;
+        private final SplittableRandom random;
+        private final double[] rewards;
+
+        // Sampled round, reset before each action
+        private final int[] hands; // Four slots per seat
+        private final int[] suitValues; // Four suit totals per seat
+        private final boolean[] knocked;
+        private final int[] turnCounters;
+        private final int[] drawCards;
+        private final int[] pileCards;
+        private int drawCount;
+        private int pileSize;
+        private int knockedCount;
+        private int activeCount;
+        private int knocker;
+
+        // The sample itself, which every action starts from
+        private final int[] pool;
+        private final int[] copies = new int[Card.DECK_SIZE]; // Unseen copies of each card while a sample is dealt
+        private final int[] dealtHands;
+        private final int[] dealtSuitValues;
+        private final int[] dealtDrawCards;
+        private final int[] dealtPileCards;
+        private int dealtDrawCount;
+        private int dealtPileSize;
+
+        Search(Table table, int actions, SplittableRandom random) {
+            this.table = table;
+            this.random = random;
+            rewards = new double[actions];
+            hands = new int[table.seats * 4];
+            suitValues = new int[table.seats * 4];
+            dealtHands = new int[table.seats * 4];
+            dealtSuitValues = new int[table.seats * 4];
+            knocked = new boolean[table.seats];
+            turnCounters = new int[table.seats];
+            int cards = table.decks * Card.DECK_SIZE;
+            drawCards = new int[cards];
+            pileCards = new int[cards];
+            pool = new int[cards];
+            dealtDrawCards = new int[cards];
+            dealtPileCards = new int[cards];
+        }
+
+        /**
+         * Takes samples until the budget is used.
+         */
+        void call(int samples, long deadline) {
+            for (int n = 0; n < samples; n++) {
+                if ((n & 15) == 15 && System.nanoTime() > deadline) {
+                    break;
+                }
+                deal();
+                for (int action = 0; action < rewards.length; action++) {
+                    rewards[action] += sample(action);
+                }
+            }
+        }
+
+        /**
+         * Adds this search's total reward for each action to the given totals.
+         */
+        void addRewards(double[] totals) {
+            for (int action = 0; action < rewards.length; action++) {
+                totals[action] += rewards[action];
+            }
+        }
+
+        /**
+         * Plays an action and the rest of the round on the current sample, and scores the outcome.
+         *
+         * @return 1 if this player keeps its lives, 0.5 if it loses one, 0 if it loses two
+         */
+        private double sample(int action) {
+            reset();
+            int me = table.me;
+            switch (table.kind) {
+                case KNOCK -> {
+                    if (action == 1) {
+                        knock(me);
+                        knocker = me;
+                    } else {
+                        drawAndDiscard(me, rolloutPolicy.takesDiscard(hands, me * 4, suitValues, me * 4, top()));
+                    }
+                }
+                case DRAW -> drawAndDiscard(me, action == 1);
+                default -> discard(me, action);
+            }
+            if (knockedCount > 0) {
+                knock(me);
+            }
+
+            int seat = me;
+            do {
+                seat = next(seat);
+            } while (playTurn(seat));
+            return 1 - livesLost(seat) / 2.0;
+        }
+
+        /**
+         * Deals a new sample: the unseen cards in a random order.
+         */
+        private void deal() {
+            int seats = table.seats;
+
+            // Shuffle the unseen cards, every copy that is not in this hand or on the pile
+            for (int index = 0; index < Card.DECK_SIZE; index++) {
+                copies[index] = table.decks - table.pileCopies[index];
+            }
+            for (int card : table.hand) {
+                copies[card]--;
+            }
+            int poolSize = 0;
+            for (int index = 0; index < Card.DECK_SIZE; index++) {
+                for (int copy = 0; copy < copies[index]; copy++) {
+                    pool[poolSize++] = index;
+                }
+            }
+            for (int i = poolSize - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int card = pool[i];
+                pool[i] = pool[j];
+                pool[j] = card;
+            }
+
+            // Give three unseen cards to every other active seat, and this player its own hand. The unseen
+            // cards are the other hands and the draw deck, so there are always enough
+            int next = 0;
+            for (int seat = 0; seat < seats; seat++) {
+                for (int suit = 0; suit < 4; suit++) {
+                    dealtSuitValues[seat * 4 + suit] = 0;
+                }
+                if (seat == table.me) {
+                    for (int i = 0; i < table.hand.length; i++) {
+                        dealCard(seat, i, table.hand[i]);
+                    }
+                } else if (table.active[seat] && poolSize - next >= 3) {
+                    next = dealImprovedHand(seat, next, poolSize);
+                }
+            }
+
+            // The rest of the unseen cards are the draw deck, and the pile keeps its known top card
+            dealtDrawCount = 0;
+            while (next < poolSize) {
+                dealtDrawCards[dealtDrawCount++] = pool[next++];
+            }
+            dealtPileSize = 0;
+            for (int index = 0; index < Card.DECK_SIZE; index++) {
+                int pileCopies = table.pileCopies[index] - (index == table.top ? 1 : 0);
+                for (int copy = 0; copy < pileCopies; copy++) {
+                    dealtPileCards[dealtPileSize++] = index;
+                }
+            }
+            if (table.top >= 0) {
+                dealtPileCards[dealtPileSize++] = table.top;
+            }
+        }
+
+        /**
+         * Deals an opponent three unseen cards, then lets it draw once for each turn it has taken and keep
+         * its best three, so players who have been building their hands are not sampled as fresh deals.
+         * Cards it lets go go back among the unseen cards. An opponent dealt the last unseen cards keeps them.
+         *
+         * @return the position of the next undealt card in the pool
+         */
+        private int dealImprovedHand(int seat, int next, int poolSize) {
+            int a = pool[next++];
+            int b = pool[next++];
+            int c = pool[next++];
+            for (int turn = 0; turn < table.turnCounters[seat] && turn < MAX_SAMPLED_TURNS && next < poolSize; turn++) {
+                int d = pool[next];
+                int drop = HandEvaluator.bestDiscard(a, b, c, d);
+                if (drop == a) {
+                    a = d;
+                } else if (drop == b) {
+                    b = d;
+                } else if (drop == c) {
+                    c = d;
+                }
+                pool[next] = drop;
+                int j = next + random.nextInt(poolSize - next);
+                pool[next] = pool[j];
+                pool[j] = drop;
+            }
+            dealCard(seat, 0, a);
+            dealCard(seat, 1, b);
+            dealCard(seat, 2, c);
+            return next;
+        }
+
+        /**
+         * Puts the round back to the table as it was when the decision was asked, with the current sample's cards.
+         */
+        private void reset() {
+            activeCount = 0;
+            knockedCount = 0;
+            for (int seat = 0; seat < table.seats; seat++) {
+                knocked[seat] = table.knocked[seat];
+                turnCounters[seat] = table.turnCounters[seat];
+                activeCount += table.active[seat] ? 1 : 0;
+                knockedCount += knocked[seat] ? 1 : 0;
+            }
+            knocker = table.knocker;
+            System.arraycopy(dealtHands, 0, hands, 0, hands.length);
+            System.arraycopy(dealtSuitValues, 0, suitValues, 0, suitValues.length);
+            System.arraycopy(dealtDrawCards, 0, drawCards, 0, dealtDrawCount);
+            System.arraycopy(dealtPileCards, 0, pileCards, 0, dealtPileSize);
+            drawCount = dealtDrawCount;
+            pileSize = dealtPileSize;
+        }
+
+        /**
+         * Plays a turn with the rollout policy, following {@code ThirtyOneGame.playTurn}.
+         *
+         * @return {@code false} if the round has ended
+         */
+        private boolean playTurn(int seat) {
+            if (pileSize == 0) {
+                if (drawCount == 0) {
+                    return false;
+                }
+                pileCards[pileSize++] = drawCards[--drawCount];
+            } else if (drawCount == 0) {
+                recycle();
+            }
+            if (knockedCount >= activeCount) {
+                return false;
+            }
+            if (knockedCount == 0) {
+                turnCounters[seat]++;
+                if (rolloutPolicy.knocks(handValue(seat), turnCounters[seat])) {
+                    knock(seat);
+                    knocker = seat;
+                    return true;
+                }
+            }
+            boolean takeDiscard = rolloutPolicy.takesDiscard(hands, seat * 4, suitValues, seat * 4, top());
+            if (!takeDiscard && drawCount == 0) {
+                return false;
+            }
+            drawAndDiscard(seat, takeDiscard);
+            if (knockedCount > 0) {
+                knock(seat);
+            }
+            return true;
+        }
+
+        /**
+         * Draws a card from the chosen pile, then discards with the rollout policy.
+         */
+        private void drawAndDiscard(int seat, boolean takeDiscard) {
+            int card;
+            if (takeDiscard) {
+                card = pileCards[--pileSize];
+            } else {
+                if (drawCount == 0) {
+                    recycle();
+                }
+                card = drawCount == 0 ? pileCards[--pileSize] : drawCards[--drawCount];
+            }
+            setCard(seat, 3, card);
+            discard(seat, rolloutPolicy.discardPosition(hands, seat * 4, suitValues, seat * 4));
+        }
+
+        /**
+         * Moves the card at a position of a 4-card hand to the discard pile.
+         */
+        private void discard(int seat, int position) {
+            int card = hands[seat * 4 + position];
+            pileCards[pileSize++] = card;
+            System.arraycopy(hands, seat * 4 + position + 1, hands, seat * 4 + position, 3 - position);
+            suitValues[seat * 4 + Card.suitOf(card)] -= Card.pointValue(card);
+        }
+
+        /**
+         * Returns the lives this player loses when the round ends after the given seat's turn,
+         * finding the lowest hand in the same order as ThirtyOneGame.
+         */
+        private int livesLost(int seat) {
+            int minScore = 31;
+            int minSeat = next(seat);
+            seat = minSeat;
+            for (int i = 0; i < table.seats; i++) {
+                seat = next(seat);
+                if (handValue(seat) < minScore) {
+                    minScore = handValue(seat);
+                    minSeat = seat;
+                }
+            }
+            if (minSeat != table.me) {
+                return 0;
+            }
+            return knocker == table.me ? 2 : 1;
+        }
+
+        /**
+         * Moves every card of the pile except its top card into the empty draw deck, in a random order.
+         */
+        private void recycle() {
+            if (pileSize <= 1) {
+                return;
+            }
+            int topCard = pileCards[pileSize - 1];
+            drawCount = pileSize - 1;
+            System.arraycopy(pileCards, 0, drawCards, 0, drawCount);
+            for (int i = drawCount - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int card = drawCards[i];
+                drawCards[i] = drawCards[j];
+                drawCards[j] = card;
+            }
+            pileCards[0] = topCard;
+            pileSize = 1;
+        }
+
+        private void dealCard(int seat, int position, int card) {
+            dealtHands[seat * 4 + position] = card;
+            dealtSuitValues[seat * 4 + Card.suitOf(card)] += Card.pointValue(card);
+        }
+
+        private void setCard(int seat, int position, int card) {
+            hands[seat * 4 + position] = card;
+            suitValues[seat * 4 + Card.suitOf(card)] += Card.pointValue(card);
+        }
+
+        private void knock(int seat) {
+            if (!knocked[seat]) {
+                knocked[seat] = true;
+                knockedCount++;
+            }
+        }
+
+        private int top() {
+            return pileCards[pileSize - 1];
+        }
+
+        private int handValue(int seat) {
+            return RulePolicy.maxSuitValue(suitValues, seat * 4, -1, 0);
+        }
+
+        private int next(int seat) {
+            do {
+                seat = seat + 1 == table.seats ? 0 : seat + 1;
+            } while (!table.active[seat]);
+            return seat;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package edu.guilford.playerModels;
+
+import java.util.Arrays;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.HandEvaluator;
+
+/**
+ * The ParameterizedModel class extends Player and plays AdvancedModel's strategy with every threshold
+ * taken from a parameter vector, so the thresholds can be tuned by search instead of fixed by hand.
+ * <p>
+ * The model knocks once its hand reaches the strong threshold or the turn passes the late turn, once it
+ * reaches the medium threshold from the medium turn on, or once it reaches the weak threshold after the
+ * weak turn. It takes the discard card when keeping the best three cards gains at least
+ * {@code max(1, floor((gainBase - handValue) / gainDivisor))} points. With {@link #ADVANCED} it plays
+ * like AdvancedModel, and {@link #BASIC} gives BasicModel's knocking rule.
+ */
+public class ParameterizedModel extends Player {
+
+    /** Hand value at which the model always knocks. */
+    public static final int STRONG_KNOCK = 0;
+    /** Hand value at which the model knocks from the medium turn on. */
+    public static final int MEDIUM_KNOCK = 1;
+    /** First turn at which a medium hand knocks. */
+    public static final int MEDIUM_TURN = 2;
+    /** Hand value at which the model knocks after the weak turn. */
+    public static final int WEAK_KNOCK = 3;
+    /** Turn after which a weak hand knocks. */
+    public static final int WEAK_TURN = 4;
+    /** Turn after which the model always knocks. */
+    public static final int LATE_TURN = 5;
+    /** Hand value the draw threshold counts down from. */
+    public static final int GAIN_BASE = 6;
+    /** Divisor of the draw threshold. */
+    public static final int GAIN_DIVISOR = 7;
+
+    /** Number of parameters. */
+    public static final int PARAMETERS = 8;
+
+    /** The name of each parameter. */
+    public static final String[] NAMES = {
+        "strongKnock", "mediumKnock", "mediumTurn", "weakKnock", "weakTurn", "lateTurn", "gainBase", "gainDivisor"
+    };
+
+    /** The smallest sensible value of each parameter. */
+    public static final double[] LOWER = {20, 20, 1, 15, 1, 1, 20, 1};
+
+    /** The largest sensible value of each parameter. A knock threshold of 32 is never reached. */
+    public static final double[] UPPER = {32, 32, 20, 32, 20, 30, 45, 30};
+
+    /** AdvancedModel's thresholds. */
+    public static final double[] ADVANCED = {29, 27, 3, 25, 5, 10, 31, 10};
+
+    /** BasicModel's knocking rule: knock at 27 or after turn 5. */
+    public static final double[] BASIC = {27, 32, 1, 32, 1, 5, 31, 10};
+
+    private final double[] parameters;
+
+    /**
+     * Constructs a model with AdvancedModel's thresholds.
+     */
+    public ParameterizedModel() {
+        this(ADVANCED);
+    }
+
+    /**
+     * Constructs a model with the given thresholds.
+     *
+     * @param parameters the thresholds, indexed by the constants of this class
+     * @throws IllegalArgumentException if there are not exactly {@link #PARAMETERS} values
+     */
+    public ParameterizedModel(double[] parameters) {
+        if (parameters.length != PARAMETERS) {
+            throw new IllegalArgumentException("A parameter vector must have " + PARAMETERS + " values.");
+        }
+        this.parameters = parameters.clone();
+    }
+
+    /**
+     * Returns a copy of the model's thresholds.
+     *
+     * @return the parameter vector
+     */
+    public double[] getParameters() {
+        return parameters.clone();
+    }
+
+    /**
+     * Takes the discard card if keeping the best three of the four cards gains enough value.
+     *
+     * @param discardCard the top card from the discard pile
+     * @return {@code Deck.DISCARD} if taking the card gains enough value, otherwise {@code Deck.DRAW}
+     */
+    @Override
+    public Deck requestDrawLocation(Card discardCard) {
+        int currentValue = hand.getTotalValue();
+        double requiredGain = Math.max(1, Math.floor((parameters[GAIN_BASE] - currentValue) / parameters[GAIN_DIVISOR]));
+        if (HandEvaluator.drawValue(hand, discardCard) - currentValue >= requiredGain) {
+            return Deck.DISCARD;
+        }
+        return Deck.DRAW;
+    }
+
+    @Override
+    public Deck requestDiscardLocation() {
+        return Deck.DISCARD;
+    }
+
+    /**
+     * Chooses the card whose removal leaves the most valuable hand. Ties go to the lower-valued card and
+     * then to the card held first, as in AdvancedModel, rather than to the lowest card index.
+     *
+     * @return the card to discard
+     */
+    @Override
+    public Card requestDiscardCard() {
+        Card bestDiscard = hand.getCard(0);
+        int bestMaxSum = -1;
+        int minValue = Integer.MAX_VALUE;
+
+        for (int i = 0; i < hand.size(); i++) {
+            Card candidate = hand.getCard(i);
+            int candidateSuit = candidate.getSuit().ordinal();
+            int currentMax = 0;
+            for (int suit = 0; suit < Card.Suit.values().length; suit++) {
+                int suitValue = hand.getSuitValue(suit) - (suit == candidateSuit ? candidate.getValue() : 0);
+                currentMax = Math.max(currentMax, suitValue);
+            }
+
+            if (currentMax > bestMaxSum || (currentMax == bestMaxSum && candidate.getValue() < minValue)) {
+                bestMaxSum = currentMax;
+                bestDiscard = candidate;
+                minValue = candidate.getValue();
+            }
+        }
+        return bestDiscard;
+    }
+
+    /**
+     * Knocks when the hand value and turn pass one of the three thresholds, or after the late turn.
+     *
+     * @return {@code true} if the player knocks, {@code false} otherwise
+     */
+    @Override
+    public boolean requestKnock() {
+        int handValue = hand.getTotalValue();
+        turnCounter++;
+
+        if (handValue >= parameters[STRONG_KNOCK] || turnCounter > parameters[LATE_TURN]) {
+            knock = true;
+        } else if (handValue >= parameters[MEDIUM_KNOCK] && turnCounter >= parameters[MEDIUM_TURN]) {
+            knock = true;
+        } else if (handValue >= parameters[WEAK_KNOCK] && turnCounter > parameters[WEAK_TURN]) {
+            knock = true;
+        }
+        return knock;
+    }
+
+    /**
+     * Limits every value of a parameter vector to its sensible range.
+     *
+     * @param parameters the vector to limit, changed in place
+     * @return the same vector
+     */
+    public static double[] clamp(double[] parameters) {
+        for (int i = 0; i < PARAMETERS; i++) {
+            parameters[i] = Math.min(UPPER[i], Math.max(LOWER[i], parameters[i]));
+        }
+        return parameters;
+    }
+
+    /**
+     * Formats a parameter vector.
+     *
+     * @param parameters the vector
+     * @return the values in brackets
+     */
+    public static String format(double[] parameters) {
+        return Arrays.toString(Arrays.stream(parameters).map(value -> Math.round(value * 100) / 100.0).toArray());
+    }
+}
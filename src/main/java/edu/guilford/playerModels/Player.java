@@ -1,7 +1,9 @@
 package edu.guilford.playerModels;
 
 import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.DiscardDeck;
 import edu.guilford.gameObjects.Hand;
+import edu.guilford.metrics.Metrics;
 
 /**
  * Represents a generic player in the ThirtyOne game. 
@@ -22,6 +24,18 @@ public abstract class Player {
     /** Turn counter */
     protected int turnCounter = 0;
 
+    /** The discard pile of the game being played, or null if the player has not joined a game. */
+    protected DiscardDeck discardDeck;
+
+    /** The group the player is seated in, notified when lives or knock state change. */
+    Group group;
+
+    /** The player's seat in its group, counted from 0. */
+    int seat = -1;
+
+    /** Whether the group currently counts this player as knocked. */
+    boolean knockCounted = false;
+
     /**
      * Enumeration for deck types in the game: draw deck or discard deck.
      */
@@ -52,6 +66,38 @@ public abstract class Player {
      */
     public abstract Card requestDiscardCard();
 
+    /**
+     * Plays the draw and discard of a turn in one call, asking each question exactly once.
+     * The default asks {@link #requestDrawLocation(Card)}, draws, and then asks
+     * {@link #requestDiscardLocation()} and {@link #requestDiscardCard()}. Models that work out
+     * their choices together can override it to share the work. When metrics are enabled the default
+     * times each of the three questions separately.
+     *
+     * @param context the game as the player sees it during the turn
+     * @return the player's choices for the turn
+     */
+    public TurnDecision decideTurn(TurnContext context) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        Deck drawLocation = requestDrawLocation(context.getDiscardCard());
+        if (Metrics.ENABLED) {
+            Metrics.decided(this, Metrics.Decision.DRAW_LOCATION, start);
+        }
+        context.draw(drawLocation);
+
+        start = Metrics.ENABLED ? System.nanoTime() : 0;
+        Deck discardLocation = requestDiscardLocation();
+        if (Metrics.ENABLED) {
+            Metrics.decided(this, Metrics.Decision.DISCARD_LOCATION, start);
+        }
+
+        start = Metrics.ENABLED ? System.nanoTime() : 0;
+        Card discardCard = requestDiscardCard();
+        if (Metrics.ENABLED) {
+            Metrics.decided(this, Metrics.Decision.DISCARD_CARD, start);
+        }
+        return new TurnDecision(drawLocation, discardCard, discardLocation);
+    }
+
     /**
      * Checks if the player chooses to knock during their turn.
      * 
@@ -79,6 +125,19 @@ public abstract class Player {
      */
     public void setKnock(boolean knock) {
         this.knock = knock;
+        if (group != null && knockCounted != knock) {
+            knockCounted = knock;
+            group.knockChanged(knock);
+        }
+    }
+
+    /**
+     * Lets the player watch the discard pile of the game it is playing.
+     * 
+     * @param discardDeck the game's discard pile
+     */
+    public void setDiscardDeck(DiscardDeck discardDeck) {
+        this.discardDeck = discardDeck;
     }
 
     /**
@@ -99,13 +158,23 @@ public abstract class Player {
         hand.removeCard(card);
     }
 
+    /**
+     * Checks whether the player's hand holds a card.
+     * 
+     * @param card the card to look for
+     * @return {@code true} if the card is in the hand
+     */
+    public boolean hasCard(Card card) {
+        return hand.contains(card);
+    }
+
     /**
      * Clears the player's hand, removing all cards.
      * Also clears player knock boolean
      */
     public void clearHand() {
         hand.reset();
-        knock = false;
+        setKnock(false);
         turnCounter = 0;
     }
 
@@ -122,7 +191,7 @@ public abstract class Player {
      * Reduces the player's lives by one.
      */
     public void removeLives() {
-        lives--;
+        removeLives(1);
     }
 
     /**
@@ -132,10 +201,14 @@ public abstract class Player {
      * @param lives the number of lives to remove
      */
     public void removeLives(int lives) {
+        boolean wasActive = this.lives > 0;
         this.lives -= lives;
         if (this.lives < 0) {
             this.lives = 0;
         }
+        if (wasActive && this.lives == 0 && group != null) {
+            group.playerEliminated(this);
+        }
     }
 
     /**
@@ -0,0 +1,221 @@
+package edu.guilford.playerModels;
+
+import edu.guilford.gameObjects.Card;
+
+/**
+ * The RulePolicy enum restates the decisions of the rule-based models on primitive card indices,
+ * for engines that keep hands in arrays instead of Player objects.
+ * <p>
+ * A hand is a run of card indices in an int array, in the order the cards were received, together
+ * with the point total of each suit for those cards. Every policy makes exactly the same decisions
+ * as its model, including how ties are broken by hand order. Discards always go to the discard pile.
+ */
+public enum RulePolicy {
+
+    /** The decisions of {@link TestModel}. */
+    TEST {
+        @Override
+        public boolean knocks(int handValue, int turnCounter) {
+            return turnCounter > 3;
+        }
+
+        @Override
+        public boolean takesDiscard(int[] cards, int offset, int[] suitValues, int suitOffset, int discardCard) {
+            return false;
+        }
+
+        @Override
+        public int discardPosition(int[] cards, int offset, int[] suitValues, int suitOffset) {
+            return 0;
+        }
+    },
+
+    /** The decisions of {@link BasicModel}. */
+    BASIC {
+        @Override
+        public boolean knocks(int handValue, int turnCounter) {
+            return handValue >= 27 || turnCounter > 5;
+        }
+
+        @Override
+        public boolean takesDiscard(int[] cards, int offset, int[] suitValues, int suitOffset, int discardCard) {
+            int currentValue = maxSuitValue(suitValues, suitOffset, -1, 0);
+            int suit = Card.suitOf(discardCard);
+            int candidateValue = Card.pointValue(discardCard);
+
+            // Find the lowest value held in the discard card's suit
+            int worstInSuit = -1;
+            for (int i = offset; i < offset + 3; i++) {
+                if (Card.suitOf(cards[i]) == suit
+                        && (worstInSuit < 0 || Card.pointValue(cards[i]) < worstInSuit)) {
+                    worstInSuit = Card.pointValue(cards[i]);
+                }
+            }
+
+            int potentialNewValue = candidateValue;
+            if (worstInSuit >= 0) {
+                potentialNewValue = suitValues[suitOffset + suit] - worstInSuit + candidateValue;
+            }
+            return potentialNewValue > currentValue;
+        }
+
+        @Override
+        public int discardPosition(int[] cards, int offset, int[] suitValues, int suitOffset) {
+            int worst = 0;
+            int worstContribution = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int contribution = suitValues[suitOffset + Card.suitOf(cards[offset + i])];
+                if (contribution < worstContribution) {
+                    worstContribution = contribution;
+                    worst = i;
+                }
+            }
+            return worst;
+        }
+    },
+
+    /** The decisions of {@link AdvancedModel} and {@link FastAdvancedModel}. */
+    ADVANCED {
+        @Override
+        public boolean knocks(int handValue, int turnCounter) {
+            if (handValue >= 29) {
+                return true;
+            } else if (handValue >= 27) {
+                return turnCounter >= 3;
+            } else if (turnCounter > 10) {
+                return true;
+            } else if (turnCounter > 5) {
+                return handValue >= 25;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean takesDiscard(int[] cards, int offset, int[] suitValues, int suitOffset, int discardCard) {
+            int currentValue = maxSuitValue(suitValues, suitOffset, -1, 0);
+            int suit = Card.suitOf(discardCard);
+            int value = Card.pointValue(discardCard);
+
+            // Best total after adding the discard card and dropping any one of the four cards
+            int bestNewMax = maxSuitValueWithout(suitValues, suitOffset, suit, value, suit, value);
+            for (int i = offset; i < offset + 3; i++) {
+                int maxSuitSum = maxSuitValueWithout(suitValues, suitOffset, suit, value,
+                        Card.suitOf(cards[i]), Card.pointValue(cards[i]));
+                if (maxSuitSum > bestNewMax) {
+                    bestNewMax = maxSuitSum;
+                }
+            }
+
+            int requiredGain = Math.max(1, (31 - currentValue) / 10);
+            return bestNewMax - currentValue >= requiredGain;
+        }
+
+        @Override
+        public int discardPosition(int[] cards, int offset, int[] suitValues, int suitOffset) {
+            int bestDiscard = 0;
+            int bestMaxSum = -1;
+            int minValue = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int card = cards[offset + i];
+                int currentMax = maxSuitValue(suitValues, suitOffset, Card.suitOf(card), Card.pointValue(card));
+                if (currentMax > bestMaxSum || (currentMax == bestMaxSum && Card.pointValue(card) < minValue)) {
+                    bestMaxSum = currentMax;
+                    bestDiscard = i;
+                    minValue = Card.pointValue(card);
+                }
+            }
+            return bestDiscard;
+        }
+    };
+
+    /**
+     * Decides whether to knock, given the hand value and the turn counter after it has been advanced.
+     *
+     * @param handValue the value of the 3-card hand
+     * @param turnCounter the number of times the player has been asked to knock this round
+     * @return {@code true} to knock
+     */
+    public abstract boolean knocks(int handValue, int turnCounter);
+
+    /**
+     * Decides whether to take the top card of the discard pile.
+     *
+     * @param cards the array holding the hand
+     * @param offset the position of the hand's first card
+     * @param suitValues the array holding the hand's suit totals
+     * @param suitOffset the position of the first suit total
+     * @param discardCard the index of the top card of the discard pile
+     * @return {@code true} to take the discard card, {@code false} to draw from the draw deck
+     */
+    public abstract boolean takesDiscard(int[] cards, int offset, int[] suitValues, int suitOffset, int discardCard);
+
+    /**
+     * Chooses which card of a 4-card hand to discard.
+     *
+     * @param cards the array holding the hand
+     * @param offset the position of the hand's first card
+     * @param suitValues the array holding the suit totals of all four cards
+     * @param suitOffset the position of the first suit total
+     * @return the position of the card to discard, from 0 to 3
+     */
+    public abstract int discardPosition(int[] cards, int offset, int[] suitValues, int suitOffset);
+
+    /**
+     * Returns the policy that makes the same decisions as a player model.
+     *
+     * @param model the class of the player model
+     * @return the matching policy
+     * @throws IllegalArgumentException if the model has no matching policy
+     */
+    public static RulePolicy of(Class<? extends Player> model) {
+        if (model == TestModel.class) {
+            return TEST;
+        } else if (model == BasicModel.class) {
+            return BASIC;
+        } else if (model == AdvancedModel.class || model == FastAdvancedModel.class) {
+            return ADVANCED;
+        }
+        throw new IllegalArgumentException("No rule policy for " + model.getSimpleName() + ".");
+    }
+
+    /**
+     * Returns the highest suit total once one card is taken out.
+     *
+     * @param suitValues the array holding the suit totals
+     * @param suitOffset the position of the first suit total
+     * @param suit the suit of the card to take out, or -1 for none
+     * @param value the point value of the card to take out
+     * @return the highest suit total
+     */
+    static int maxSuitValue(int[] suitValues, int suitOffset, int suit, int value) {
+        int max = 0;
+        for (int s = 0; s < 4; s++) {
+            int total = s == suit ? suitValues[suitOffset + s] - value : suitValues[suitOffset + s];
+            if (total > max) {
+                max = total;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the highest suit total once one card is added and another taken out.
+     */
+    private static int maxSuitValueWithout(int[] suitValues, int suitOffset, int addedSuit, int addedValue,
+            int removedSuit, int removedValue) {
+        int max = 0;
+        for (int s = 0; s < 4; s++) {
+            int total = suitValues[suitOffset + s];
+            if (s == addedSuit) {
+                total += addedValue;
+            }
+            if (s == removedSuit) {
+                total -= removedValue;
+            }
+            if (total > max) {
+                max = total;
+            }
+        }
+        return max;
+    }
+}
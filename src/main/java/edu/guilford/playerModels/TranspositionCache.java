@@ -0,0 +1,345 @@
+package edu.guilford.playerModels;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The TranspositionCache class remembers the results of player decisions, so models that meet the same
+ * situation again in later turns or games can skip re-evaluating it.
+ * <p>
+ * A situation is a long key, usually built by {@link #key(long, int, int)} from the hand, the top discard
+ * card and the turn, and a result is an int. The cache holds a fixed number of entries split into
+ * independently locked stripes, so many simulation threads can share one cache. When a stripe is full
+ * the CLOCK algorithm evicts an entry that has not been read since the clock hand last passed it.
+ * The contents can be saved to a file and loaded into another cache, so a warm cache carries over
+ * between simulation campaigns.
+ */
+public class TranspositionCache {
+
+    /** Returned by {@link #get(long)} when the key is not in the cache. */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private static final int STRIPES = 16; // Number of independently locked segments, a power of two
+    private static final int FILE_MAGIC = 0x54434331; // "TCC1", the first int of a saved cache
+
+    private final Segment[] segments = new Segment[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity the most entries the cache holds, rounded up to a multiple of 16
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    public TranspositionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        }
+        int slots = (capacity + STRIPES - 1) / STRIPES;
+        for (int i = 0; i < STRIPES; i++) {
+            segments[i] = new Segment(slots);
+        }
+    }
+
+    /**
+     * Encodes a decision state as a key: the hand mask in the low 52 bits, then the top discard card
+     * and the turn in 6 bits each.
+     *
+     * @param handMask the cards of the hand, as returned by {@link edu.guilford.gameObjects.Hand#getMask()}
+     * @param topCard the index of the top discard card, or -1 if it does not matter
+     * @param turn the turn counter, capped at 63
+     * @return the key
+     */
+    public static long key(long handMask, int topCard, int turn) {
+        return handMask | (long) (topCard + 1) << 52 | (long) Math.min(turn, 63) << 58;
+    }
+
+    /**
+     * Returns the result stored for a key.
+     *
+     * @param key the key of the situation
+     * @return the stored result, or {@link #MISSING} if there is none
+     */
+    public int get(long key) {
+        long hash = mix(key);
+        int value = segmentFor(hash).get(key, hash);
+        if (value == MISSING) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Stores the result for a key, evicting another entry if the key's stripe is full.
+     *
+     * @param key the key of the situation
+     * @param value the result, which must not be {@link #MISSING}
+     * @throws IllegalArgumentException if the value is {@link #MISSING}
+     */
+    public void put(long key, int value) {
+        if (value == MISSING) {
+            throw new IllegalArgumentException("Cannot store the MISSING value.");
+        }
+        long hash = mix(key);
+        if (segmentFor(hash).put(key, value, hash)) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the most entries the cache holds.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return segments[0].keys.length * STRIPES;
+    }
+
+    /**
+     * Returns the number of lookups that found their key.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find their key.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for new ones.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Removes every entry. The counters are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Writes every entry to a file. The file is written under a temporary name and then moved into
+     * place, so an interrupted save never leaves a half-written cache behind.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(FILE_MAGIC);
+            for (Segment segment : segments) {
+                segment.writeTo(out);
+            }
+            out.writeInt(0);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds every entry saved in a file to the cache. If the file holds more entries than fit,
+     * the later ones evict the earlier ones.
+     *
+     * @param file a file written by {@link #save(Path)}
+     * @throws IOException if the file cannot be read or is not a saved cache
+     */
+    public void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not a saved transposition cache.");
+            }
+            for (int count = in.readInt(); count > 0; count = in.readInt()) {
+                for (int i = 0; i < count; i++) {
+                    long key = in.readLong();
+                    put(key, in.readInt());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the stripe that holds a hash.
+     */
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> 60) & (STRIPES - 1)];
+    }
+
+    /**
+     * Spreads the bits of a key, using the finalizer of MurmurHash3.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * One stripe: a fixed array of entries, found through a linear-probing index and evicted by CLOCK.
+     */
+    private static final class Segment {
+        private final long[] keys;
+        private final int[] values;
+        private final boolean[] referenced; // Set when an entry is read, cleared as the clock hand passes
+        private final int[] index; // Entry number plus one at each probe position, or 0 if empty
+        private int size = 0;
+        private int clockHand = 0;
+
+        Segment(int slots) {
+            keys = new long[slots];
+            values = new int[slots];
+            referenced = new boolean[slots];
+            index = new int[Integer.highestOneBit(slots * 2 - 1) << 1];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int get(long key, long hash) {
+            int mask = index.length - 1;
+            for (int i = (int) hash & mask; index[i] != 0; i = (i + 1) & mask) {
+                int slot = index[i] - 1;
+                if (keys[slot] == key) {
+                    referenced[slot] = true;
+                    return values[slot];
+                }
+            }
+            return MISSING;
+        }
+
+        /**
+         * Stores a value, replacing the key's old value if it has one.
+         *
+         * @return {@code true} if another entry was evicted
+         */
+        synchronized boolean put(long key, int value, long hash) {
+            int mask = index.length - 1;
+            int i = (int) hash & mask;
+            for (; index[i] != 0; i = (i + 1) & mask) {
+                int slot = index[i] - 1;
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return false;
+                }
+            }
+
+            boolean evicted = size == keys.length;
+            int slot;
+            if (evicted) {
+                slot = evict();
+
+                // Removing the victim may have shifted entries, so find the free position again
+                i = (int) hash & mask;
+                while (index[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+            } else {
+                slot = size++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            referenced[slot] = false;
+            index[i] = slot + 1;
+            return evicted;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(index, 0);
+            size = 0;
+            clockHand = 0;
+        }
+
+        /**
+         * Writes the stripe's entry count followed by its keys and values.
+         */
+        synchronized void writeTo(DataOutputStream out) throws IOException {
+            if (size == 0) {
+                return;
+            }
+            out.writeInt(size);
+            for (int slot = 0; slot < size; slot++) {
+                out.writeLong(keys[slot]);
+                out.writeInt(values[slot]);
+            }
+        }
+
+        /**
+         * Advances the clock hand to an entry that has not been read since the hand last passed,
+         * removes it from the index, and returns its slot.
+         */
+        private int evict() {
+            while (referenced[clockHand]) {
+                referenced[clockHand] = false;
+                clockHand = (clockHand + 1) % keys.length;
+            }
+            int victim = clockHand;
+            clockHand = (clockHand + 1) % keys.length;
+            removeFromIndex(victim);
+            return victim;
+        }
+
+        /**
+         * Removes an entry from the index, shifting later entries of its probe run back so lookups still find them.
+         */
+        private void removeFromIndex(int slot) {
+            int mask = index.length - 1;
+            int i = (int) mix(keys[slot]) & mask;
+            while (index[i] != slot + 1) {
+                i = (i + 1) & mask;
+            }
+            for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+                int home = (int) mix(keys[index[j] - 1]) & mask;
+
+                // Move the entry back if its home position is not between the gap and where it sits
+                boolean between = i <= j ? i < home && home <= j : i < home || home <= j;
+                if (!between) {
+                    index[i] = index[j];
+                    i = j;
+                }
+            }
+            index[i] = 0;
+        }
+    }
+}
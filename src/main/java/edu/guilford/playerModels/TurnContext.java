@@ -0,0 +1,28 @@
+package edu.guilford.playerModels;
+
+import edu.guilford.gameObjects.Card;
+
+/**
+ * A TurnContext is what a player sees of the game while it plays a turn in
+ * {@link Player#decideTurn(TurnContext)}. The player cannot know the card it will draw before
+ * choosing where to draw from, so it calls {@link #draw(Player.Deck)} once in the middle of its
+ * decision, and the drawn card is added to its hand before the call returns.
+ */
+public interface TurnContext {
+
+    /**
+     * Returns the top card of the discard pile, the card the player may take.
+     *
+     * @return the top discard card
+     */
+    Card getDiscardCard();
+
+    /**
+     * Draws a card into the player's hand. It must be called exactly once per turn.
+     *
+     * @param location the deck to draw from
+     * @return the card drawn
+     * @throws IllegalStateException if the player has already drawn this turn
+     */
+    Card draw(Player.Deck location);
+}
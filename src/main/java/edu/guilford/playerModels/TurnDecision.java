@@ -0,0 +1,25 @@
+package edu.guilford.playerModels;
+
+import edu.guilford.gameObjects.Card;
+
+/**
+ * The choices a player makes in one turn after deciding not to knock: where it drew from,
+ * which card it discards, and where the discarded card goes.
+ *
+ * @param drawLocation the deck the player drew from
+ * @param discardCard the card the player discards, which must be in its hand
+ * @param discardLocation the deck the discarded card goes to
+ */
+public record TurnDecision(Player.Deck drawLocation, Card discardCard, Player.Deck discardLocation) {
+
+    /**
+     * Checks that every choice was made.
+     *
+     * @throws IllegalArgumentException if any choice is null
+     */
+    public TurnDecision {
+        if (drawLocation == null || discardCard == null || discardLocation == null) {
+            throw new IllegalArgumentException("Every choice of a turn must be made.");
+        }
+    }
+}
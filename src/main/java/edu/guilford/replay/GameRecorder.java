@@ -0,0 +1,125 @@
+package edu.guilford.replay;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import edu.guilford.GameListener;
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.DrawDeck;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The GameRecorder class writes every game it listens to as a compact binary record,
+ * which {@link GameReplay} can play back exactly without the original player models.
+ * <p>
+ * A record is the game's seed and seat count followed by one tagged event per shuffle,
+ * knock and turn, and ends with the winning seat. A shuffle stores the full card order
+ * of the draw deck, one byte per card, and a turn takes two bytes. Records of many games
+ * can be appended to the same stream.
+ */
+public class GameRecorder implements GameListener, Closeable {
+
+    /** Tag ending a game record, followed by the winning seat. */
+    static final int END = 0;
+
+    /** Tag for the deck order at the start of a round. */
+    static final int ROUND = 1;
+
+    /** Tag for the deck order after the discard deck was recycled during a round. */
+    static final int RESHUFFLE = 2;
+
+    /** Tag for a player starting the knock sequence. */
+    static final int KNOCK = 3;
+
+    /** Tag for a turn. The two low bits hold the draw and discard locations. */
+    static final int TURN = 4;
+
+    /** Turn flag set when the player drew from the discard deck. */
+    static final int DRAW_FROM_DISCARD = 1;
+
+    /** Turn flag set when the player discarded onto the draw deck. */
+    static final int DISCARD_TO_DRAW = 2;
+
+    private final DataOutputStream out; // The stream receiving the records
+    private int[] order = new int[Card.DECK_SIZE]; // Scratch copy of the deck order, grown for larger decks
+
+    /**
+     * Constructs a recorder that writes to the given stream. The stream should be buffered.
+     *
+     * @param out the stream that receives the records
+     */
+    public GameRecorder(OutputStream out) {
+        this.out = out instanceof DataOutputStream dataOut ? dataOut : new DataOutputStream(out);
+    }
+
+    @Override
+    public void gameStarted(long seed, int seats) {
+        try {
+            out.writeLong(seed);
+            out.writeShort(seats);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void deckShuffled(DrawDeck drawDeck, boolean recycled) {
+        try {
+            if (order.length < drawDeck.size()) {
+                order = new int[drawDeck.size()];
+            }
+            int length = drawDeck.copyIndices(order);
+            out.writeByte(recycled ? RESHUFFLE : ROUND);
+            out.writeShort(length);
+            for (int i = 0; i < length; i++) {
+                out.writeByte(order[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void knocked(Player player) {
+        try {
+            out.writeByte(KNOCK);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void turnPlayed(Player player, Player.Deck drawLocation, Player.Deck discardLocation, Card discardCard) {
+        try {
+            int flags = (drawLocation == Player.Deck.DISCARD ? DRAW_FROM_DISCARD : 0)
+                    | (discardLocation == Player.Deck.DRAW ? DISCARD_TO_DRAW : 0);
+            out.writeByte(TURN | flags);
+            out.writeByte(discardCard.getIndex());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void gameFinished(int winner) {
+        try {
+            out.writeByte(END);
+            out.writeShort(winner);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     *
+     * @throws IOException if the stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
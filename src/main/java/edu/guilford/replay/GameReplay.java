@@ -0,0 +1,226 @@
+package edu.guilford.replay;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.DrawDeck;
+import edu.guilford.gameObjects.Shuffler;
+import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The GameReplay class plays back games written by {@link GameRecorder}.
+ * <p>
+ * Each game is played again by a real ThirtyOneGame, but the deck orders come from the
+ * record and every seat is taken by a player that repeats the recorded decisions. The
+ * original player models are never run, so replaying is cheap, and the replayed winner
+ * is checked against the recorded one.
+ */
+public class GameReplay {
+
+    private final DataInputStream in; // The stream holding the records
+    private int[] order = new int[Card.DECK_SIZE]; // Scratch deck order, grown for larger decks
+    private int tag = -1; // The next unread tag, or -1 if it has not been read yet
+
+    private long seed; // Seed of the last replayed game
+    private int seats; // Seat count of the last replayed game
+    private int winner; // Winning seat of the last replayed game
+    private int rounds; // Rounds in the last replayed game
+    private int turns; // Turns in the last replayed game
+
+    /**
+     * Constructs a replay that reads records from the given stream. The stream should be buffered.
+     *
+     * @param in the stream holding the records
+     */
+    public GameReplay(InputStream in) {
+        this.in = in instanceof DataInputStream dataIn ? dataIn : new DataInputStream(in);
+    }
+
+    /**
+     * Replays the next game in the stream.
+     *
+     * @return {@code true} if a game was replayed, {@code false} at the end of the stream
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalStateException if the record does not describe a valid game
+     */
+    public boolean next() throws IOException {
+        try {
+            seed = in.readLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        seats = in.readUnsignedShort();
+        rounds = 0;
+        turns = 0;
+        tag = -1;
+
+        Group group = new Group();
+        for (int i = 0; i < seats; i++) {
+            group.addPlayer(new ReplayPlayer());
+        }
+        ThirtyOneGame game = new ThirtyOneGame(group, seed);
+        game.setShuffler(new RecordedShuffler());
+        try {
+            game.playGame();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        expect(nextTag() == GameRecorder.END);
+        tag = -1;
+        winner = in.readShort();
+        expect(winner == group.getWinner());
+        return true;
+    }
+
+    /**
+     * Returns the seed of the last replayed game.
+     *
+     * @return the game's seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of seats in the last replayed game.
+     *
+     * @return the seat count
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    /**
+     * Returns the winner of the last replayed game.
+     *
+     * @return the winning seat, counted from 1, or -1 if there was no single winner
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Returns the number of rounds in the last replayed game.
+     *
+     * @return the round count
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of turns in the last replayed game, not counting knocks.
+     *
+     * @return the turn count
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Returns the next tag without consuming it.
+     */
+    private int nextTag() {
+        if (tag < 0) {
+            try {
+                tag = in.readUnsignedByte();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return tag;
+    }
+
+    /**
+     * Reads one unsigned byte of event data.
+     */
+    private int readByte() {
+        try {
+            return in.readUnsignedByte();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fails the replay if the record disagrees with the game being played back.
+     */
+    private static void expect(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Replay record does not match the game.");
+        }
+    }
+
+    /**
+     * Loads each recorded deck order in place of a shuffle.
+     */
+    private class RecordedShuffler implements Shuffler {
+        @Override
+        public void shuffle(DrawDeck drawDeck, boolean recycled) {
+            expect(nextTag() == (recycled ? GameRecorder.RESHUFFLE : GameRecorder.ROUND));
+            tag = -1;
+            int length = readByte() << 8 | readByte();
+            expect(length == drawDeck.size());
+            if (order.length < length) {
+                order = new int[length];
+            }
+            for (int i = 0; i < length; i++) {
+                order[i] = readByte();
+            }
+            drawDeck.load(order, length);
+            if (!recycled) {
+                rounds++;
+            }
+        }
+    }
+
+    /**
+     * A player that repeats the recorded knocks and turns.
+     */
+    private class ReplayPlayer extends Player {
+
+        private Deck drawLocation; // Where the current turn draws from
+        private Deck discardLocation; // Where the current turn discards to
+        private Card discardCard; // The card the current turn discards
+
+        @Override
+        public boolean requestKnock() {
+            turnCounter++;
+            if (nextTag() == GameRecorder.KNOCK) {
+                tag = -1;
+                knock = true;
+            }
+            return knock;
+        }
+
+        @Override
+        public Deck requestDrawLocation(Card discardCard) {
+            int turn = nextTag();
+            expect((turn & ~3) == GameRecorder.TURN);
+            tag = -1;
+            turns++;
+            drawLocation = (turn & GameRecorder.DRAW_FROM_DISCARD) != 0 ? Deck.DISCARD : Deck.DRAW;
+            discardLocation = (turn & GameRecorder.DISCARD_TO_DRAW) != 0 ? Deck.DRAW : Deck.DISCARD;
+            this.discardCard = Card.ofIndex(readByte());
+            return drawLocation;
+        }
+
+        @Override
+        public Deck requestDiscardLocation() {
+            expect(hand.contains(discardCard));
+            return discardLocation;
+        }
+
+        @Override
+        public Card requestDiscardCard() {
+            return discardCard;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package edu.guilford.server;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The BotClient class connects to a {@link TableServer} and answers its requests with a local
+ * player model, so any model in the project can play at a remote table. The model is told the
+ * hand sent with every request, and a new model is created for every game. A client plays
+ * one connection at a time, so concurrent connections each need their own client.
+ */
+public class BotClient {
+
+    private final String host;
+    private final int port;
+    private final Supplier<? extends Player> modelFactory; // Creates the model for each game
+    private final ArrayList<Card> held = new ArrayList<>(4); // Cards currently in the model's hand
+    private Player model; // The model playing the current game
+
+    /**
+     * Constructs a client for a server.
+     *
+     * @param host the server's host name or address
+     * @param port the server's port
+     * @param modelFactory creates a new player model for every game
+     */
+    public BotClient(String host, int port, Supplier<? extends Player> modelFactory) {
+        this.host = host;
+        this.port = port;
+        this.modelFactory = modelFactory;
+    }
+
+    /**
+     * Connects, plays the given number of games at one table, and disconnects.
+     *
+     * @param games the number of games to play
+     * @return the number of games won
+     * @throws IOException if the connection fails or the server breaks the protocol
+     * @throws IllegalArgumentException if the number of games is less than 1
+     */
+    public int play(int games) throws IOException {
+        if (games < 1) {
+            throw new IllegalArgumentException("Must play at least 1 game.");
+        }
+        int wins = 0;
+        model = modelFactory.get();
+        held.clear();
+        try (Connection connection = new Connection(new Socket(host, port), 0)) {
+            while (true) {
+                String[] message = connection.receive().split(" ");
+                switch (message[0]) {
+                    case "ROUND" -> {
+                        model.clearHand();
+                        held.clear();
+                    }
+                    case "KNOCK" -> {
+                        setHand(message, 3);
+                        connection.send(model.requestKnock() ? "1" : "0");
+                    }
+                    case "DRAW" -> {
+                        setHand(message, 3);
+                        Card discardCard = card(message, 4);
+                        connection.send(model.requestDrawLocation(discardCard).name());
+                    }
+                    case "DISCARD" -> {
+                        setHand(message, 4);
+                        connection.send(Integer.toString(model.requestDiscardCard().getIndex()));
+                    }
+                    case "END" -> {
+                        if (message.length > 1 && message[1].equals("1")) {
+                            wins++;
+                        }
+                        games--;
+                        if (games == 0) {
+                            connection.send("QUIT");
+                            return wins;
+                        }
+                        connection.send("AGAIN");
+                        model = modelFactory.get();
+                        held.clear();
+                    }
+                    default -> throw new ProtocolException("Unknown message from server: " + message[0]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the model's hand with the cards listed in a message.
+     */
+    private void setHand(String[] message, int size) throws ProtocolException {
+        for (Card card : held) {
+            model.removeCard(card);
+        }
+        held.clear();
+        for (int i = 1; i <= size; i++) {
+            Card card = card(message, i);
+            model.addCard(card);
+            held.add(card);
+        }
+    }
+
+    /**
+     * Reads the card at a position of a message.
+     */
+    private static Card card(String[] message, int position) throws ProtocolException {
+        try {
+            return Card.ofIndex(Integer.parseInt(message[position]));
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new ProtocolException("Invalid card in message: " + String.join(" ", message));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package edu.guilford.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Connection class carries the line-based table protocol over one socket. Messages are buffered
+ * until a reply is needed, so a notice and the request that follows it reach the client in one packet.
+ */
+final class Connection implements Closeable {
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final BufferedWriter out;
+
+    /**
+     * Wraps a connected socket.
+     *
+     * @param socket the socket
+     * @param timeoutMillis the longest wait for a line, or 0 to wait forever
+     * @throws IOException if the socket's streams cannot be opened
+     */
+    Connection(Socket socket, int timeoutMillis) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(timeoutMillis);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Queues a line without sending it.
+     *
+     * @param line the line, without a line terminator
+     * @throws IOException if the line cannot be written
+     */
+    void send(String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+    }
+
+    /**
+     * Sends every queued line and waits for the next line from the other side.
+     *
+     * @return the line received
+     * @throws IOException if the socket fails, times out or is closed by the other side
+     */
+    String receive() throws IOException {
+        out.flush();
+        String line = in.readLine();
+        if (line == null) {
+            throw new EOFException("Connection closed by " + socket.getRemoteSocketAddress() + ".");
+        }
+        return line;
+    }
+
+    /**
+     * Sends a line and waits for the reply.
+     *
+     * @param line the request
+     * @return the reply
+     * @throws IOException if the socket fails, times out or is closed by the other side
+     */
+    String ask(String line) throws IOException {
+        send(line);
+        return receive();
+    }
+
+    /**
+     * Sends every queued line and closes the socket, ignoring any failure.
+     */
+    @Override
+    public void close() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            // The other side is already gone
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing more can be done with a socket that fails to close
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package edu.guilford.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import edu.guilford.metrics.Histogram;
+import edu.guilford.playerModels.FastAdvancedModel;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The LoadGenerator class measures a {@link TableServer} by starting one on the loopback address
+ * and connecting enough {@link BotClient}s to fill the given number of tables at once. Every client
+ * plays the same number of games, so the tables stay together until the run ends.
+ * <p>
+ * Run it on its own with {@code java -cp target/classes edu.guilford.server.LoadGenerator [tables] [seats] [games]}.
+ */
+public class LoadGenerator {
+
+    private final int tables; // Number of tables played at the same time
+    private final int seats; // Number of players at each table
+    private final int gamesPerTable; // Number of games each table plays
+    private final Supplier<? extends Player> modelFactory; // Creates the model of each client
+    private long gamesPlayed = 0;
+    private long failedTables = 0;
+    private long failedClients = 0;
+    private long elapsedNanos = 0;
+    private Histogram roundTrips = new Histogram();
+
+    /**
+     * Constructs a load generator.
+     *
+     * @param tables the number of tables played at the same time
+     * @param seats the number of players at each table
+     * @param gamesPerTable the number of games each table plays
+     * @param modelFactory creates the player model of each client
+     * @throws IllegalArgumentException if any count is less than 1, or there are fewer than 2 seats
+     */
+    public LoadGenerator(int tables, int seats, int gamesPerTable, Supplier<? extends Player> modelFactory) {
+        if (tables < 1 || gamesPerTable < 1) {
+            throw new IllegalArgumentException("Tables and games per table must be at least 1.");
+        }
+        if (seats < 2) {
+            throw new IllegalArgumentException("A table must have at least 2 seats.");
+        }
+        this.tables = tables;
+        this.seats = seats;
+        this.gamesPerTable = gamesPerTable;
+        this.modelFactory = modelFactory;
+    }
+
+    /**
+     * Starts a server, plays every table to the end, and stops the server.
+     *
+     * @throws IOException if the server cannot be started
+     * @throws IllegalStateException if the run is interrupted
+     */
+    public void run() throws IOException {
+        try (TableServer server = new TableServer(0, seats)) {
+            server.start();
+            ExecutorService clients = Threads.newPerTaskExecutor("thirtyone-client");
+            String host = InetAddress.getLoopbackAddress().getHostAddress();
+            List<Callable<Integer>> tasks = new ArrayList<>(tables * seats);
+            for (int i = 0; i < tables * seats; i++) {
+                tasks.add(() -> new BotClient(host, server.getPort(), modelFactory).play(gamesPerTable));
+            }
+
+            long start = System.nanoTime();
+            failedClients = 0;
+            try {
+                for (Future<Integer> future : clients.invokeAll(tasks)) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        failedClients++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Load generation was interrupted.", e);
+            } finally {
+                clients.shutdownNow();
+            }
+            elapsedNanos = System.nanoTime() - start;
+            gamesPlayed = server.getGamesPlayed();
+            failedTables = server.getTablesFailed();
+            roundTrips = server.getRoundTrips();
+        }
+    }
+
+    /**
+     * Returns the number of games finished per second in the last run.
+     *
+     * @return the game rate
+     */
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : gamesPlayed * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the number of games finished in the last run.
+     *
+     * @return the game count
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Returns the number of tables that ended early in the last run.
+     *
+     * @return the failed table count
+     */
+    public long getFailedTables() {
+        return failedTables;
+    }
+
+    /**
+     * Returns the server's round trip of every decision in the last run.
+     *
+     * @return the histogram of round trips in nanoseconds
+     */
+    public Histogram getRoundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * Returns a summary of the last run.
+     *
+     * @return the games played, game rate, failures and round-trip latency
+     */
+    @Override
+    public String toString() {
+        return String.format("Tables: %d x %d seats on %s threads | Games: %d in %.2f s (%.1f games/s) | Failed tables: %d, clients: %d%n"
+                + "Decision round trip ns: %s%n",
+                tables, seats, Threads.VIRTUAL ? "virtual" : "platform", gamesPlayed, elapsedNanos / 1e9,
+                getGamesPerSecond(), failedTables, failedClients, roundTrips);
+    }
+
+    /**
+     * Runs the load generator with FastAdvancedModel clients and prints the summary.
+     *
+     * @param args the number of tables (default 1000), seats per table (default 4) and games per table (default 5)
+     * @throws IOException if the server cannot be started
+     */
+    public static void main(String[] args) throws IOException {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seats = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        LoadGenerator generator = new LoadGenerator(tables, seats, games, FastAdvancedModel::new);
+        generator.run();
+        System.out.print(generator);
+    }
+}
@@ -0,0 +1,176 @@
+package edu.guilford.server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ProtocolException;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.metrics.Histogram;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The RemotePlayer class extends Player and forwards every decision to a client over the table
+ * protocol described in {@link TableServer}. The table's thread blocks while it waits for the
+ * reply, which costs almost nothing on a virtual thread.
+ * <p>
+ * Failures cannot be thrown through the Player methods as checked exceptions, so a broken
+ * connection or an invalid reply is thrown as an {@link UncheckedIOException}, which ends the table.
+ */
+public class RemotePlayer extends Player {
+
+    private final Connection connection; // The client deciding for this player
+    private final Histogram roundTrips; // Receives the time of every request in nanoseconds
+
+    /**
+     * Constructs a player that asks the client at the other end of a connection.
+     *
+     * @param connection the client's connection
+     * @param roundTrips the histogram that receives the round-trip time of every request
+     */
+    RemotePlayer(Connection connection, Histogram roundTrips) {
+        this.connection = connection;
+        this.roundTrips = roundTrips;
+    }
+
+    /**
+     * Asks the client whether to knock.
+     *
+     * @return {@code true} if the client knocks
+     * @throws UncheckedIOException if the client fails or sends an invalid reply
+     */
+    @Override
+    public boolean requestKnock() {
+        turnCounter++;
+        String reply = ask("KNOCK" + cards());
+        switch (reply) {
+            case "1" -> knock = true;
+            case "0" -> knock = false;
+            default -> throw invalid(reply);
+        }
+        return knock;
+    }
+
+    /**
+     * Asks the client which deck to draw from.
+     *
+     * @param discardCard the top card of the discard pile
+     * @return the deck the client chose
+     * @throws UncheckedIOException if the client fails or sends an invalid reply
+     */
+    @Override
+    public Deck requestDrawLocation(Card discardCard) {
+        String reply = ask("DRAW" + cards() + " " + discardCard.getIndex());
+        switch (reply) {
+            case "DRAW" -> {
+                return Deck.DRAW;
+            }
+            case "DISCARD" -> {
+                return Deck.DISCARD;
+            }
+            default -> throw invalid(reply);
+        }
+    }
+
+    /**
+     * Discards to the discard pile without asking, as every model in this project does.
+     *
+     * @return {@code Deck.DISCARD}
+     */
+    @Override
+    public Deck requestDiscardLocation() {
+        return Deck.DISCARD;
+    }
+
+    /**
+     * Asks the client which card to discard.
+     *
+     * @return the card the client chose
+     * @throws UncheckedIOException if the client fails or chooses a card it does not hold
+     */
+    @Override
+    public Card requestDiscardCard() {
+        String reply = ask("DISCARD" + cards());
+        Card card;
+        try {
+            card = Card.ofIndex(Integer.parseInt(reply));
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw invalid(reply);
+        }
+        if (!hand.contains(card)) {
+            throw invalid(reply);
+        }
+        return card;
+    }
+
+    /**
+     * Clears the hand and tells the client a new round has started.
+     *
+     * @throws UncheckedIOException if the notice cannot be written
+     */
+    @Override
+    public void clearHand() {
+        super.clearHand();
+        try {
+            connection.send("ROUND");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Tells the client the game is over and asks whether it wants to play again.
+     *
+     * @param won {@code true} if this player won the game
+     * @return {@code true} if the client wants another game
+     * @throws UncheckedIOException if the client fails or sends an invalid reply
+     */
+    boolean finish(boolean won) {
+        String reply;
+        try {
+            reply = connection.ask(won ? "END 1" : "END 0");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        switch (reply) {
+            case "AGAIN" -> {
+                return true;
+            }
+            case "QUIT" -> {
+                return false;
+            }
+            default -> throw invalid(reply);
+        }
+    }
+
+    /**
+     * Sends a request, waits for the reply, and records the round trip.
+     */
+    private String ask(String request) {
+        long start = System.nanoTime();
+        try {
+            String reply = connection.ask(request);
+            roundTrips.record(System.nanoTime() - start);
+            return reply;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lists the card indices of the hand, each preceded by a space.
+     */
+    private String cards() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < hand.size(); i++) {
+            sb.append(' ').append(hand.getCard(i).getIndex());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Creates the exception thrown for a reply the protocol does not allow.
+     */
+    private static UncheckedIOException invalid(String reply) {
+        return new UncheckedIOException(new ProtocolException("Invalid reply from client: " + reply));
+    }
+}
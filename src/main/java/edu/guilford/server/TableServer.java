@@ -0,0 +1,268 @@
+package edu.guilford.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.metrics.Histogram;
+import edu.guilford.playerModels.Group;
+
+/**
+ * The TableServer class hosts games of Thirty-One for bot clients that connect over TCP.
+ * Connected clients wait in a lobby until there are enough of them to fill a table, and each
+ * table then plays its games on its own thread, a virtual thread on Java 21 and later.
+ * <p>
+ * The protocol is plain text, one message per line. The server sends:
+ * <ul>
+ *   <li>{@code ROUND} when a new round is dealt, with no reply</li>
+ *   <li>{@code KNOCK c1 c2 c3}, answered by {@code 1} to knock or {@code 0} to play on</li>
+ *   <li>{@code DRAW c1 c2 c3 d}, where {@code d} is the top discard card, answered by {@code DRAW} or {@code DISCARD}</li>
+ *   <li>{@code DISCARD c1 c2 c3 c4}, answered by the index of the card to discard</li>
+ *   <li>{@code END w}, where {@code w} is 1 if the client won, answered by {@code AGAIN} or {@code QUIT}</li>
+ * </ul>
+ * Cards are sent as indices from 0 to 51, as returned by {@link edu.guilford.gameObjects.Card#getIndex()}.
+ * A table keeps playing while all its clients answer {@code AGAIN}; if some quit, the rest return to the lobby.
+ * A client that disconnects, times out or breaks the protocol ends its table, and the other clients
+ * of the table are disconnected.
+ */
+public class TableServer implements Closeable {
+
+    private static final int BACKLOG = 4096; // Connections the operating system may queue before they are accepted
+
+    private final ServerSocket serverSocket;
+    private final int seats; // Number of players at each table
+    private final int timeoutMillis; // Longest wait for a client's reply
+    private final ExecutorService tables;
+    private final ArrayDeque<Connection> lobby = new ArrayDeque<>(); // Clients waiting for a table
+    private final Set<Connection> connected = ConcurrentHashMap.newKeySet(); // Every open client connection
+    private final Histogram roundTrips = new Histogram();
+    private final LongAdder gamesPlayed = new LongAdder();
+    private final LongAdder tablesFailed = new LongAdder();
+    private Thread acceptor; // Accepts connections, or null before the server starts
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs a server listening on the loopback address, waiting up to 30 seconds for each reply.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @param seats the number of players at each table
+     * @throws IOException if the port cannot be bound
+     * @throws IllegalArgumentException if there are fewer than 2 seats
+     */
+    public TableServer(int port, int seats) throws IOException {
+        this(new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress()), seats, 30000);
+    }
+
+    /**
+     * Constructs a server listening on a bound server socket.
+     *
+     * @param serverSocket the bound socket to accept clients from
+     * @param seats the number of players at each table
+     * @param timeoutMillis the longest wait for a client's reply, or 0 to wait forever
+     * @throws IllegalArgumentException if there are fewer than 2 seats, or the timeout is negative
+     */
+    public TableServer(ServerSocket serverSocket, int seats, int timeoutMillis) {
+        if (seats < 2) {
+            throw new IllegalArgumentException("A table must have at least 2 seats.");
+        }
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative.");
+        }
+        this.serverSocket = serverSocket;
+        this.seats = seats;
+        this.timeoutMillis = timeoutMillis;
+        tables = Threads.newPerTaskExecutor("thirtyone-table");
+    }
+
+    /**
+     * Starts accepting clients.
+     *
+     * @throws IllegalStateException if the server has already started
+     */
+    public synchronized void start() {
+        if (acceptor != null) {
+            throw new IllegalStateException("Server has already started.");
+        }
+        acceptor = new Thread(this::acceptClients, "thirtyone-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of games finished by every table so far.
+     *
+     * @return the game count
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed.sum();
+    }
+
+    /**
+     * Returns the number of tables ended by a client failing.
+     *
+     * @return the failed table count
+     */
+    public long getTablesFailed() {
+        return tablesFailed.sum();
+    }
+
+    /**
+     * Returns the time from sending each decision request to receiving its reply.
+     *
+     * @return the histogram of round trips in nanoseconds
+     */
+    public Histogram getRoundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * Returns whether tables run on virtual threads.
+     *
+     * @return {@code true} on Java 21 and later
+     */
+    public static boolean usesVirtualThreads() {
+        return Threads.VIRTUAL;
+    }
+
+    /**
+     * Stops accepting clients and disconnects every client, which ends the tables.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // The acceptor stops either way
+        }
+        synchronized (lobby) {
+            lobby.clear();
+        }
+        connected.forEach(this::disconnect);
+        tables.shutdownNow();
+    }
+
+    /**
+     * Accepts clients until the server is closed.
+     */
+    private void acceptClients() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                Connection connection;
+                try {
+                    connection = new Connection(socket, timeoutMillis);
+                } catch (IOException e) {
+                    socket.close();
+                    continue;
+                }
+                connected.add(connection);
+                if (closed) {
+                    disconnect(connection);
+                } else {
+                    join(connection);
+                }
+            } catch (IOException e) {
+                // A failed accept only loses that client, unless the server socket was closed
+            }
+        }
+    }
+
+    /**
+     * Puts clients in the lobby and starts a table whenever enough of them are waiting.
+     */
+    private void join(List<Connection> connections) {
+        synchronized (lobby) {
+            lobby.addAll(connections);
+            while (lobby.size() >= seats) {
+                List<Connection> table = new ArrayList<>(seats);
+                for (int i = 0; i < seats; i++) {
+                    table.add(lobby.poll());
+                }
+                try {
+                    tables.execute(() -> playTable(table));
+                } catch (RejectedExecutionException e) {
+                    // The server is closing
+                    table.forEach(this::disconnect);
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts one client in the lobby.
+     */
+    private void join(Connection connection) {
+        join(List.of(connection));
+    }
+
+    /**
+     * Plays games at one table until a client quits or fails.
+     */
+    private void playTable(List<Connection> connections) {
+        try {
+            while (true) {
+                Group group = new Group();
+                List<RemotePlayer> players = new ArrayList<>(seats);
+                for (Connection connection : connections) {
+                    RemotePlayer player = new RemotePlayer(connection, roundTrips);
+                    players.add(player);
+                    group.addPlayer(player);
+                }
+                new ThirtyOneGame(group).playGame();
+                gamesPlayed.increment();
+
+                // Keep the clients that want another game
+                int winner = group.getWinner();
+                List<Connection> staying = new ArrayList<>(seats);
+                for (int i = 0; i < seats; i++) {
+                    if (players.get(i).finish(i + 1 == winner)) {
+                        staying.add(connections.get(i));
+                    } else {
+                        disconnect(connections.get(i));
+                    }
+                }
+                if (staying.size() < seats) {
+                    if (closed) {
+                        staying.forEach(this::disconnect);
+                    } else {
+                        join(staying);
+                    }
+                    return;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            tablesFailed.increment();
+            connections.forEach(this::disconnect);
+        }
+    }
+
+    /**
+     * Closes a client's connection.
+     */
+    private void disconnect(Connection connection) {
+        connected.remove(connection);
+        connection.close();
+    }
+}
@@ -0,0 +1,67 @@
+package edu.guilford.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The Threads class creates the executors that run tables and bot clients, one thread per task.
+ * <p>
+ * On Java 21 and later every task gets a virtual thread, which costs a few hundred bytes while it
+ * waits on a socket, so one JVM can host thousands of tables. The project still compiles for
+ * Java 17, so the virtual-thread executor is looked up reflectively; on older runtimes the tasks
+ * fall back to a cached pool of daemon platform threads.
+ */
+final class Threads {
+
+    /** Whether {@link #newPerTaskExecutor(String)} creates virtual threads on this runtime. */
+    static final boolean VIRTUAL = hasVirtualThreads();
+
+    /**
+     * Only has static methods.
+     */
+    private Threads() {}
+
+    /**
+     * Creates an executor that starts a new thread for every task.
+     *
+     * @param name the name of the platform threads, if virtual threads are not available
+     * @return the executor
+     */
+    static ExecutorService newPerTaskExecutor(String name) {
+        ExecutorService executor = virtualExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks whether the runtime offers a virtual-thread-per-task executor.
+     */
+    private static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a new virtual-thread-per-task executor, or {@code null} before Java 21.
+     */
+    private static ExecutorService virtualExecutor() {
+        if (!VIRTUAL) {
+            return null;
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package edu.guilford.simulation;
+
+import java.util.SplittableRandom;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.Player;
+import edu.guilford.playerModels.RulePolicy;
+
+/**
+ * The BatchEngine class plays many games of Thirty-One between rule-based strategies at once,
+ * keeping every game in primitive arrays instead of Group, Player, Hand and deck objects.
+ * <p>
+ * Each pass over the batch plays one turn of every unfinished game, so the state of all games is
+ * walked in order through a few flat arrays. The engine follows the rules of {@link edu.guilford.ThirtyOneGame}
+ * step by step and draws its shuffles from the same generators, so a game with the same seed and the
+ * same strategies has the same winner, in the same number of rounds, as in ThirtyOneGame.
+ */
+public class BatchEngine {
+
+    private static final int HAND = 4; // Slots per hand: three cards plus the card drawn during a turn
+    private static final int SUITS = 4;
+
+    private final RulePolicy[] policies; // Strategy of each seat
+    private final int seats; // Number of seats at every table
+    private final int capacity; // Largest number of games played at once
+
+    // Decks, one block of 52 slots per game
+    private final int[] drawCards;
+    private final int[] drawHead; // Position of the front card of each draw deck
+    private final int[] drawCount; // Number of cards in each draw deck
+    private final int[] drawPending; // Front cards still waiting to be shuffled
+    private final int[] discardCards;
+    private final int[] discardSize;
+    private final SplittableRandom[] gameRandom; // Seeds the shuffles of each round
+    private final SplittableRandom[] roundRandom; // Shuffles the current round
+
+    // Players, one block per seat of each game
+    private final int[] handCards; // Cards of each hand, in the order they were received
+    private final int[] suitValues; // Point total of each suit of each hand
+    private final byte[] lives;
+    private final boolean[] knocked;
+    private final int[] turnCounters;
+
+    // Tables, one entry per game
+    private final int[] currentSeat; // Seat of the player whose turn it is
+    private final int[] activePlayers;
+    private final int[] knockedPlayers;
+    private final int[] knockSeat; // Seat of the player that knocked this round
+    private final boolean[] roundOver; // Whether the next pass starts a new round
+    private final int[] rounds;
+    private final int[] winners;
+
+    /**
+     * Constructs an engine for games between the given strategies.
+     *
+     * @param policies the strategy of each seat
+     * @param capacity the largest number of games to play at once
+     * @throws IllegalArgumentException if there are fewer than 2 or more than 16 seats, or the capacity is less than 1
+     */
+    public BatchEngine(RulePolicy[] policies, int capacity) {
+        if (policies.length < 2 || policies.length > 16) {
+            throw new IllegalArgumentException("Number of players must be between 2 and 16.");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        }
+        this.policies = policies.clone();
+        this.seats = policies.length;
+        this.capacity = capacity;
+
+        drawCards = new int[capacity * Card.DECK_SIZE];
+        drawHead = new int[capacity];
+        drawCount = new int[capacity];
+        drawPending = new int[capacity];
+        discardCards = new int[capacity * Card.DECK_SIZE];
+        discardSize = new int[capacity];
+        gameRandom = new SplittableRandom[capacity];
+        roundRandom = new SplittableRandom[capacity];
+
+        handCards = new int[capacity * seats * HAND];
+        suitValues = new int[capacity * seats * SUITS];
+        lives = new byte[capacity * seats];
+        knocked = new boolean[capacity * seats];
+        turnCounters = new int[capacity * seats];
+
+        currentSeat = new int[capacity];
+        activePlayers = new int[capacity];
+        knockedPlayers = new int[capacity];
+        knockSeat = new int[capacity];
+        roundOver = new boolean[capacity];
+        rounds = new int[capacity];
+        winners = new int[capacity];
+    }
+
+    /**
+     * Constructs an engine for games between the strategies of a group's players.
+     *
+     * @param group a group whose players all have a matching {@link RulePolicy}
+     * @param capacity the largest number of games to play at once
+     * @throws IllegalArgumentException if a player has no matching policy, or the table or capacity is invalid
+     */
+    public BatchEngine(Group group, int capacity) {
+        this(policiesOf(group), capacity);
+    }
+
+    /**
+     * Plays games with consecutive seeds and counts the wins of each seat.
+     *
+     * @param firstSeed the seed of the first game; each later game uses the next seed
+     * @param games the number of games to play
+     * @return the number of wins for each seat, indexed from 0
+     * @throws IllegalArgumentException if the number of games is negative
+     */
+    public int[] run(long firstSeed, int games) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Number of games cannot be negative.");
+        }
+        int[] wins = new int[seats];
+        long[] seeds = new long[capacity];
+        int[] batchWinners = new int[capacity];
+        int[] batchRounds = new int[capacity];
+        for (int start = 0; start < games; start += capacity) {
+            int batch = Math.min(capacity, games - start);
+            for (int i = 0; i < batch; i++) {
+                seeds[i] = firstSeed + start + i;
+            }
+            play(seeds, batch, batchWinners, batchRounds);
+            for (int i = 0; i < batch; i++) {
+                wins[batchWinners[i] - 1]++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Plays one batch of games to the end.
+     *
+     * @param seeds the seed of each game
+     * @param games the number of games to play, taken from the start of the arrays
+     * @param winners receives the winning seat of each game, counted from 1 as in {@link Group#getWinner()}
+     * @param roundsPlayed receives the number of rounds of each game
+     * @throws IllegalArgumentException if there are more games than the engine's capacity
+     */
+    public void play(long[] seeds, int games, int[] winners, int[] roundsPlayed) {
+        if (games > capacity) {
+            throw new IllegalArgumentException("Batch cannot hold more than " + capacity + " games.");
+        }
+
+        // Games still running, kept packed at the front of the array
+        int[] running = new int[games];
+        for (int game = 0; game < games; game++) {
+            startGame(game, seeds[game]);
+            running[game] = game;
+        }
+
+        int remaining = games;
+        while (remaining > 0) {
+            for (int i = 0; i < remaining; i++) {
+                int game = running[i];
+                if (!step(game)) {
+                    running[i--] = running[--remaining];
+                }
+            }
+        }
+
+        for (int game = 0; game < games; game++) {
+            winners[game] = this.winners[game];
+            roundsPlayed[game] = rounds[game];
+        }
+    }
+
+    /**
+     * Returns the strategy of each player in a group.
+     */
+    private static RulePolicy[] policiesOf(Group group) {
+        RulePolicy[] policies = new RulePolicy[group.size()];
+        for (int seat = 0; seat < policies.length; seat++) {
+            Player player = group.getPlayers().get(seat);
+            policies[seat] = RulePolicy.of(player.getClass());
+        }
+        return policies;
+    }
+
+    /**
+     * Seats every player with full lives.
+     */
+    private void startGame(int game, long seed) {
+        gameRandom[game] = new SplittableRandom(seed);
+        for (int seat = 0; seat < seats; seat++) {
+            lives[game * seats + seat] = 3;
+        }
+        activePlayers[game] = seats;
+        roundOver[game] = true;
+        rounds[game] = 0;
+        winners[game] = -1;
+    }
+
+    /**
+     * Plays one turn of a game, starting a new round first if the last one ended.
+     *
+     * @return {@code false} once the game has finished
+     */
+    private boolean step(int game) {
+        if (roundOver[game]) {
+            startRound(game);
+        }
+        int seat = nextSeat(game, currentSeat[game]);
+        currentSeat[game] = seat;
+        if (playTurn(game, seat)) {
+            return true;
+        }
+
+        endRound(game);
+        if (activePlayers[game] > 1) {
+            return true;
+        }
+        for (seat = 0; seat < seats; seat++) {
+            if (lives[game * seats + seat] > 0) {
+                winners[game] = seat + 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clears every hand, shuffles a new deck, and deals three cards to every seat.
+     */
+    private void startRound(int game) {
+        rounds[game]++;
+        roundOver[game] = false;
+        for (int player = game * seats; player < (game + 1) * seats; player++) {
+            knocked[player] = false;
+            turnCounters[player] = 0;
+            for (int suit = 0; suit < SUITS; suit++) {
+                suitValues[player * SUITS + suit] = 0;
+            }
+        }
+        knockedPlayers[game] = 0;
+        currentSeat[game] = 0;
+
+        // Build a fresh deck and shuffle it lazily, as DrawDeck does
+        int base = game * Card.DECK_SIZE;
+        for (int index = 0; index < Card.DECK_SIZE; index++) {
+            drawCards[base + index] = index;
+        }
+        drawHead[game] = 0;
+        drawCount[game] = Card.DECK_SIZE;
+        drawPending[game] = Card.DECK_SIZE;
+        roundRandom[game] = new SplittableRandom(gameRandom[game].nextLong());
+        discardSize[game] = 0;
+
+        // Deal round-robin to every seat, including eliminated ones
+        for (int card = 0; card < 3; card++) {
+            for (int seat = 0; seat < seats; seat++) {
+                int player = game * seats + seat;
+                int drawn = draw(game);
+                handCards[player * HAND + card] = drawn;
+                suitValues[player * SUITS + Card.suitOf(drawn)] += Card.pointValue(drawn);
+            }
+        }
+        push(game, draw(game));
+    }
+
+    /**
+     * Plays a single turn for a seat, following {@code ThirtyOneGame.playTurn}.
+     *
+     * @return {@code false} if the round should end, otherwise {@code true}
+     */
+    private boolean playTurn(int game, int seat) {
+        int player = game * seats + seat;
+        RulePolicy policy = policies[seat];
+
+        // Ensure discard and draw decks are not empty
+        if (discardSize[game] == 0) {
+            push(game, draw(game));
+        } else if (drawCount[game] == 0) {
+            recycle(game);
+        }
+
+        // End the round if all players have knocked
+        if (knockedPlayers[game] >= activePlayers[game]) {
+            return false;
+        }
+
+        // Start the knock sequence if no player has knocked yet
+        if (knockedPlayers[game] == 0) {
+            turnCounters[player]++;
+            if (policy.knocks(handValue(player), turnCounters[player])) {
+                setKnocked(game, player);
+                knockSeat[game] = seat;
+                return true;
+            }
+        }
+
+        // Draw a card into the fourth slot
+        int hand = player * HAND;
+        int suits = player * SUITS;
+        int topDiscard = discardCards[game * Card.DECK_SIZE + discardSize[game] - 1];
+        int drawn = policy.takesDiscard(handCards, hand, suitValues, suits, topDiscard)
+                ? pop(game) : draw(game);
+        handCards[hand + 3] = drawn;
+        suitValues[suits + Card.suitOf(drawn)] += Card.pointValue(drawn);
+
+        // Discard a card and close the gap it leaves
+        int position = policy.discardPosition(handCards, hand, suitValues, suits);
+        int discarded = handCards[hand + position];
+        push(game, discarded);
+        System.arraycopy(handCards, hand + position + 1, handCards, hand + position, 3 - position);
+        suitValues[suits + Card.suitOf(discarded)] -= Card.pointValue(discarded);
+
+        // If a knocking sequence is active, mark the player as knocked
+        if (knockedPlayers[game] > 0) {
+            setKnocked(game, player);
+        }
+        return true;
+    }
+
+    /**
+     * Takes lives from the player with the lowest hand, scanning the seats in the same order as ThirtyOneGame.
+     */
+    private void endRound(int game) {
+        roundOver[game] = true;
+        int minScore = 31;
+        int minSeat = nextSeat(game, currentSeat[game]);
+        int seat = minSeat;
+        for (int i = 0; i < seats; i++) {
+            seat = nextSeat(game, seat);
+            int value = handValue(game * seats + seat);
+            if (value < minScore) {
+                minScore = value;
+                minSeat = seat;
+            }
+        }
+        currentSeat[game] = seat;
+
+        // The knocking player loses two lives if their hand is the lowest
+        int player = game * seats + minSeat;
+        int lost = minSeat == knockSeat[game] ? 2 : 1;
+        lives[player] = (byte) Math.max(0, lives[player] - lost);
+        if (lives[player] == 0) {
+            activePlayers[game]--;
+            if (knocked[player]) {
+                knockedPlayers[game]--;
+            }
+        }
+    }
+
+    /**
+     * Returns the next seat after the given one that still has lives.
+     */
+    private int nextSeat(int game, int seat) {
+        do {
+            seat = seat + 1 == seats ? 0 : seat + 1;
+        } while (lives[game * seats + seat] == 0);
+        return seat;
+    }
+
+    /**
+     * Returns the value of a 3-card hand, the highest point total of any suit.
+     */
+    private int handValue(int player) {
+        int suits = player * SUITS;
+        return Math.max(Math.max(suitValues[suits], suitValues[suits + 1]),
+                Math.max(suitValues[suits + 2], suitValues[suits + 3]));
+    }
+
+    /**
+     * Marks a player as knocked.
+     */
+    private void setKnocked(int game, int player) {
+        if (!knocked[player]) {
+            knocked[player] = true;
+            knockedPlayers[game]++;
+        }
+    }
+
+    /**
+     * Removes the front card of a draw deck, completing one step of its lazy shuffle first.
+     *
+     * @throws IllegalStateException if the draw deck is empty
+     */
+    private int draw(int game) {
+        if (drawCount[game] == 0) {
+            throw new IllegalStateException("Draw deck is empty.");
+        }
+        int head = game * Card.DECK_SIZE + drawHead[game];
+        int pending = drawPending[game];
+        if (pending > 1) {
+            int swap = head + roundRandom[game].nextInt(pending);
+            int card = drawCards[head];
+            drawCards[head] = drawCards[swap];
+            drawCards[swap] = card;
+        }
+        if (pending > 0) {
+            drawPending[game] = pending - 1;
+        }
+        drawHead[game]++;
+        drawCount[game]--;
+        return drawCards[head];
+    }
+
+    /**
+     * Moves every discarded card except the top one back into the empty draw deck and shuffles it.
+     */
+    private void recycle(int game) {
+        int base = game * Card.DECK_SIZE;
+        int size = discardSize[game];
+        if (size > 1) {
+            System.arraycopy(discardCards, base, drawCards, base, size - 1);
+            discardCards[base] = discardCards[base + size - 1];
+            discardSize[game] = 1;
+            drawHead[game] = 0;
+            drawCount[game] = size - 1;
+        }
+        drawPending[game] = drawCount[game];
+    }
+
+    /**
+     * Places a card on top of a discard pile.
+     */
+    private void push(int game, int card) {
+        discardCards[game * Card.DECK_SIZE + discardSize[game]++] = card;
+    }
+
+    /**
+     * Removes the top card of a discard pile.
+     */
+    private int pop(int game) {
+        return discardCards[game * Card.DECK_SIZE + --discardSize[game]];
+    }
+}
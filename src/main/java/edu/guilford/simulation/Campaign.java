@@ -0,0 +1,316 @@
+package edu.guilford.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.playerModels.Group;
+
+/**
+ * The Campaign class plays a long, numbered series of games into a {@link ResultAggregator} and can
+ * checkpoint its progress, so an interrupted campaign resumes where it stopped and ends with exactly the
+ * results of an uninterrupted one.
+ * <p>
+ * Game {@code i} of a campaign is always played with seed {@code seed + i}, so the campaign's random
+ * stream is fully described by the number of games finished. Games finish out of order on the worker
+ * threads, so results are folded into the aggregator strictly in game order: a game that finishes early
+ * waits until every game before it has been recorded. The aggregator therefore always holds an unbroken
+ * run of games, which is what a checkpoint saves together with its length. Workers only copy the totals
+ * into memory; a separate writer thread puts them on disk, atomically, and skips snapshots that are
+ * overtaken while it is busy.
+ */
+public class Campaign {
+
+    private static final int FILE_MAGIC = 0x434d5031; // "CMP1", the first int of a checkpoint
+
+    private final Supplier<Group> groupFactory; // Creates a new group of new players for every game
+    private final long seed; // Seed of game 0
+    private final ResultAggregator aggregator; // Receives the results in game order
+    private final ExecutorService executor; // The executor that plays the games
+    private final int parallelism; // Number of games played at the same time
+
+    private Path checkpoint; // File the progress is written to, or null
+    private long checkpointInterval = 1000; // Games between checkpoints
+
+    // Progress, guarded by this
+    private long finished = 0; // Games recorded in the aggregator, always games 0 to finished - 1
+    private final Map<Long, Finished> waiting = new HashMap<>(); // Games finished ahead of their turn
+    private long lastCheckpoint = 0; // Value of finished at the last checkpoint
+    private long checkpointsWritten = 0;
+
+    // Snapshot waiting for the writer thread, or null
+    private byte[] pendingSnapshot;
+    private ExecutorService writer;
+
+    /**
+     * A game that finished before every earlier game had been recorded.
+     */
+    private record Finished(Group group, int rounds) {}
+
+    /**
+     * Constructs a campaign that plays on the common fork-join pool.
+     *
+     * @param groupFactory creates the group of players for one game; it must return a new group of new players every time
+     * @param seed the seed of the first game; each later game uses the next seed
+     * @param aggregator the aggregator that receives the results
+     */
+    public Campaign(Supplier<Group> groupFactory, long seed, ResultAggregator aggregator) {
+        this(groupFactory, seed, aggregator, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Constructs a campaign that plays on the given executor.
+     *
+     * @param groupFactory creates the group of players for one game; it must return a new group of new players every time
+     * @param seed the seed of the first game; each later game uses the next seed
+     * @param aggregator the aggregator that receives the results
+     * @param executor the executor that plays the games
+     * @param parallelism the number of games to play at the same time, usually the number of threads
+     * @throws IllegalArgumentException if the parallelism is less than 1
+     */
+    public Campaign(Supplier<Group> groupFactory, long seed, ResultAggregator aggregator,
+            ExecutorService executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.groupFactory = groupFactory;
+        this.seed = seed;
+        this.aggregator = aggregator;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the file progress is written to, and resumes from it if it already exists.
+     *
+     * @param checkpoint the checkpoint file, or {@code null} for none
+     * @param interval the number of games between checkpoints
+     * @throws IllegalArgumentException if the interval is less than 1
+     * @throws IOException if the file exists but cannot be read, is not a checkpoint, or belongs to a campaign with another seed
+     */
+    public synchronized void setCheckpoint(Path checkpoint, long interval) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1.");
+        }
+        this.checkpoint = checkpoint;
+        this.checkpointInterval = interval;
+        if (checkpoint != null && Files.exists(checkpoint)) {
+            load(checkpoint);
+        }
+    }
+
+    /**
+     * Plays games until the given number of games of the campaign have been recorded, or the aggregator's
+     * sequential test has decided. A checkpoint is written at the end of the run.
+     *
+     * @param totalGames the number of games the campaign should have recorded when the run ends
+     * @return the aggregator
+     * @throws IllegalArgumentException if the number of games is negative
+     * @throws IllegalStateException if the run fails or is interrupted
+     * @throws UncheckedIOException if the final checkpoint cannot be written
+     */
+    public ResultAggregator run(long totalGames) {
+        if (totalGames < 0) {
+            throw new IllegalArgumentException("Number of games cannot be negative.");
+        }
+        AtomicLong next;
+        synchronized (this) {
+            next = new AtomicLong(finished);
+            writer = checkpoint == null ? null : Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "campaign-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            tasks.add(() -> {
+                long game;
+                while (!aggregator.isDecided() && (game = next.getAndIncrement()) < totalGames) {
+                    Group group = groupFactory.get();
+                    ThirtyOneGame thirtyOneGame = new ThirtyOneGame(group, seed + game);
+                    thirtyOneGame.playGame();
+                    finish(game, group, thirtyOneGame.getRoundsPlayed());
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Campaign was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Campaign failed.", e.getCause());
+        } finally {
+            stopWriter();
+        }
+
+        synchronized (this) {
+            if (checkpoint != null) {
+                try {
+                    save(checkpoint, snapshot());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            waiting.clear();
+        }
+        return aggregator;
+    }
+
+    /**
+     * Returns the number of games recorded in the aggregator, which is also the index of the next game.
+     *
+     * @return the game count
+     */
+    public synchronized long getFinishedGames() {
+        return finished;
+    }
+
+    /**
+     * Returns the number of checkpoints written by this campaign.
+     *
+     * @return the checkpoint count
+     */
+    public synchronized long getCheckpointsWritten() {
+        return checkpointsWritten;
+    }
+
+    /**
+     * Records a finished game, together with every waiting game that can now follow it, and hands a
+     * snapshot to the writer once enough games have been recorded since the last checkpoint.
+     */
+    private synchronized void finish(long game, Group group, int rounds) {
+        if (game != finished) {
+            waiting.put(game, new Finished(group, rounds));
+            return;
+        }
+        if (aggregator.isDecided()) {
+            return;
+        }
+        aggregator.record(group, rounds);
+        finished++;
+        Finished next;
+        while (!aggregator.isDecided() && (next = waiting.remove(finished)) != null) {
+            aggregator.record(next.group(), next.rounds());
+            finished++;
+        }
+
+        if (writer != null && finished - lastCheckpoint >= checkpointInterval) {
+            lastCheckpoint = finished;
+            boolean idle = pendingSnapshot == null;
+            pendingSnapshot = snapshot();
+            if (idle) {
+                writer.execute(this::writePending);
+            }
+        }
+    }
+
+    /**
+     * Writes the latest snapshot on the writer thread. Snapshots taken while a write is in progress replace
+     * each other, so only the newest is written next.
+     */
+    private void writePending() {
+        byte[] snapshot;
+        synchronized (this) {
+            snapshot = pendingSnapshot;
+            pendingSnapshot = null;
+        }
+        try {
+            save(checkpoint, snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Waits for the writer thread to finish its last checkpoint and shuts it down.
+     */
+    private void stopWriter() {
+        ExecutorService stopping;
+        synchronized (this) {
+            stopping = writer;
+            writer = null;
+        }
+        if (stopping == null) {
+            return;
+        }
+        stopping.shutdown();
+        try {
+            stopping.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Copies the progress into a checkpoint image.
+     */
+    private byte[] snapshot() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(seed);
+            out.writeLong(finished);
+            aggregator.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a checkpoint image under a temporary name and moves it into place, so an interrupted save
+     * never leaves a half-written checkpoint behind.
+     */
+    private void save(Path file, byte[] snapshot) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, snapshot);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        synchronized (this) {
+            checkpointsWritten++;
+        }
+    }
+
+    /**
+     * Restores the progress and the aggregator's totals from a checkpoint.
+     */
+    private void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not a campaign checkpoint.");
+            }
+            if (in.readLong() != seed) {
+                throw new IOException(file + " was written by a campaign with a different seed.");
+            }
+            finished = in.readLong();
+            lastCheckpoint = finished;
+            aggregator.read(in);
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package edu.guilford.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.gameObjects.Card;
+import edu.guilford.gameObjects.DrawDeck;
+import edu.guilford.gameObjects.Shuffler;
+import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The DuplicateTournament class compares player models the way duplicate bridge compares partnerships:
+ * every deal is played several times with the models seated differently, so each model meets the same
+ * cards from every seat and the luck of the deal cancels out of the comparison.
+ * <p>
+ * A deal is the order of the draw deck at the start of every round of a game. The orders are generated
+ * once per deal and handed to {@link ThirtyOneGame} through a {@link Shuffler}, and the deal is then played
+ * once for every distinct arrangement of the seating, so each model holds every seat's cards equally often.
+ * A deck recycled from the discard pile during a round depends on the play, so it is shuffled from a
+ * generator seeded by the deal and round.
+ * <p>
+ * A board is either a whole game, scored by the winner, or a single round from full lives, scored by the
+ * lives each seat lost. A model's score on a deal is its mean score per board, divided by the number of
+ * seats it holds, and two models are compared by the mean of their paired score differences over the deals.
+ * How much pairing helps depends on how long the boards stay alike: every draw comes off one shared deck, so
+ * once the models choose differently the later draws go to other seats. Single rounds stay alike far longer
+ * than whole games.
+ */
+public class DuplicateTournament {
+
+    /**
+     * What is played on each deal.
+     */
+    public enum Board {
+        /** A whole game. A model scores 1 for every game it wins. */
+        GAME,
+        /** A single round with every player at full lives. A model scores the lives its seats lost. */
+        ROUND
+    }
+
+    /**
+     * The comparison of two models.
+     *
+     * @param difference the mean per-seat score of the first model minus that of the second
+     * @param standardError the standard error of the difference, computed from the paired deal scores
+     * @param independentError the standard error the same boards would give if they had been independent deals
+     * @param deals the number of deals compared
+     */
+    public record Comparison(double difference, double standardError, double independentError, int deals) {
+
+        /**
+         * Returns how many standard errors the difference is from zero.
+         *
+         * @return the z-score of the difference
+         */
+        public double z() {
+            return difference / standardError;
+        }
+
+        /**
+         * Returns how many times as many independent boards would be needed for the same standard error.
+         *
+         * @return the ratio of the variances
+         */
+        public double efficiency() {
+            return independentError * independentError / (standardError * standardError);
+        }
+    }
+
+    private final List<String> names = new ArrayList<>(); // Distinct model names
+    private final List<Supplier<? extends Player>> factories = new ArrayList<>(); // Factory of each model
+    private final int[] seatsHeld; // Number of seats each model holds
+    private final int[][] arrangements; // Model of each seat, for every distinct arrangement
+    private final ExecutorService executor; // The executor that plays the deals
+    private final int parallelism; // Number of batches the deals are split into
+
+    private Board board = Board.GAME; // What the last run played
+    private double[][] scores = new double[0][]; // Score of every model on every board of every deal
+
+    /**
+     * Constructs a tournament playing on the common fork-join pool.
+     *
+     * @param seating creates the player of each seat; seats of the same model should share the same model class
+     * @throws IllegalArgumentException if there are fewer than 2 or more than 8 seats
+     */
+    public DuplicateTournament(List<Supplier<? extends Player>> seating) {
+        this(seating, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Constructs a tournament playing on the given executor.
+     *
+     * @param seating creates the player of each seat; seats of the same model should share the same model class
+     * @param executor the executor that plays the deals
+     * @param parallelism the number of batches to split a run into, usually the number of threads
+     * @throws IllegalArgumentException if there are fewer than 2 or more than 8 seats, or the parallelism is less than 1
+     */
+    public DuplicateTournament(List<Supplier<? extends Player>> seating, ExecutorService executor, int parallelism) {
+        if (seating.size() < 2 || seating.size() > 8) {
+            throw new IllegalArgumentException("A duplicate table must have from 2 to 8 seats.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+
+        int[] layout = new int[seating.size()];
+        for (int seat = 0; seat < layout.length; seat++) {
+            String name = seating.get(seat).get().getClass().getSimpleName();
+            int model = names.indexOf(name);
+            if (model < 0) {
+                model = names.size();
+                names.add(name);
+                factories.add(seating.get(seat));
+            }
+            layout[seat] = model;
+        }
+        seatsHeld = new int[names.size()];
+        for (int model : layout) {
+            seatsHeld[model]++;
+        }
+        arrangements = arrangements(layout);
+    }
+
+    /**
+     * Plays a whole game with every arrangement of the seating on each of a number of deals.
+     *
+     * @param firstSeed the seed of the first deal; each later deal uses the next seed
+     * @param deals the number of deals to play
+     * @throws IllegalArgumentException if the number of deals is negative
+     * @throws IllegalStateException if the run fails or is interrupted
+     */
+    public void run(long firstSeed, int deals) {
+        run(Board.GAME, firstSeed, deals);
+    }
+
+    /**
+     * Plays a board with every arrangement of the seating on each of a number of deals, replacing the
+     * results of any earlier run.
+     *
+     * @param board what to play on each deal
+     * @param firstSeed the seed of the first deal; each later deal uses the next seed
+     * @param deals the number of deals to play
+     * @throws IllegalArgumentException if the number of deals is negative
+     * @throws IllegalStateException if the run fails or is interrupted
+     */
+    public void run(Board board, long firstSeed, int deals) {
+        if (deals < 0) {
+            throw new IllegalArgumentException("Number of deals cannot be negative.");
+        }
+        double[][] results = new double[deals][];
+        int batches = Math.max(1, Math.min(parallelism, deals));
+        List<Callable<Void>> tasks = new ArrayList<>(batches);
+        for (int batch = 0; batch < batches; batch++) {
+            int first = batch;
+            tasks.add(() -> {
+                for (int deal = first; deal < deals; deal += batches) {
+                    results[deal] = playDeal(board, firstSeed + deal);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament failed.", e.getCause());
+        }
+        this.board = board;
+        scores = results;
+    }
+
+    /**
+     * Returns the number of arrangements each deal is played with.
+     *
+     * @return the games per deal
+     */
+    public int getArrangements() {
+        return arrangements.length;
+    }
+
+    /**
+     * Returns the number of boards played in the last run.
+     *
+     * @return the board count
+     */
+    public long getBoards() {
+        return (long) scores.length * arrangements.length;
+    }
+
+    /**
+     * Compares two models over the deals of the last run.
+     *
+     * @param first the simple class name of the first model
+     * @param second the simple class name of the second model
+     * @return the comparison
+     * @throws IllegalArgumentException if a model is not seated
+     * @throws IllegalStateException if fewer than 2 deals have been played
+     */
+    public Comparison compare(String first, String second) {
+        int a = indexOf(first);
+        int b = indexOf(second);
+        if (scores.length < 2) {
+            throw new IllegalStateException("A comparison needs at least 2 deals.");
+        }
+
+        // Paired score difference of every deal, and the difference of every single board
+        int models = names.size();
+        double[] dealDifferences = new double[scores.length];
+        double[] boardDifferences = new double[scores.length * arrangements.length];
+        int boardIndex = 0;
+        for (int deal = 0; deal < scores.length; deal++) {
+            double sum = 0;
+            for (int i = 0; i < arrangements.length; i++) {
+                double difference = scores[deal][i * models + a] / seatsHeld[a]
+                        - scores[deal][i * models + b] / seatsHeld[b];
+                boardDifferences[boardIndex++] = difference;
+                sum += difference;
+            }
+            dealDifferences[deal] = sum / arrangements.length;
+        }
+        return new Comparison(mean(dealDifferences), standardError(dealDifferences),
+                standardError(boardDifferences), scores.length);
+    }
+
+    /**
+     * Returns the per-seat score of every model and the comparison of the first two models.
+     *
+     * @return a formatted, multi-line summary
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Deals: %d | Arrangements per deal: %d | %s boards: %d%n", scores.length,
+                arrangements.length, board == Board.GAME ? "Game" : "Round", getBoards()));
+        long boards = Math.max(1, getBoards());
+        int models = names.size();
+        for (int model = 0; model < models; model++) {
+            double total = 0;
+            for (double[] deal : scores) {
+                for (int i = 0; i < arrangements.length; i++) {
+                    total += deal[i * models + model];
+                }
+            }
+            sb.append(String.format("%s (%d seats) %s: %.0f | Per seat and board: %.4f%n", names.get(model),
+                    seatsHeld[model], board == Board.GAME ? "wins" : "lives lost", total,
+                    total / boards / seatsHeld[model]));
+        }
+        if (models >= 2 && scores.length >= 2) {
+            Comparison comparison = compare(names.get(0), names.get(1));
+            sb.append(String.format("%s - %s: %+.4f | Paired SE: %.4f | Independent SE: %.4f | Efficiency: %.1fx%n",
+                    names.get(0), names.get(1), comparison.difference(), comparison.standardError(),
+                    comparison.independentError(), comparison.efficiency()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Plays one deal with every arrangement of the seating.
+     *
+     * @return the score of every model on each board, one block of models per arrangement
+     */
+    private double[] playDeal(Board board, long seed) {
+        Deal deal = new Deal(seed);
+        int models = names.size();
+        double[] dealScores = new double[arrangements.length * models];
+        for (int i = 0; i < arrangements.length; i++) {
+            int[] arrangement = arrangements[i];
+            Group group = new Group();
+            for (int model : arrangement) {
+                group.addPlayer(factories.get(model).get());
+            }
+            ThirtyOneGame game = new ThirtyOneGame(group, seed);
+            game.setShuffler(deal.new DealShuffler());
+            if (board == Board.GAME) {
+                game.playGame();
+                int winner = group.getWinner();
+                if (winner > 0) {
+                    dealScores[i * models + arrangement[winner - 1]]++;
+                }
+            } else {
+                game.playRound();
+                for (int seat = 0; seat < arrangement.length; seat++) {
+                    dealScores[i * models + arrangement[seat]] += 3 - group.getPlayers().get(seat).getLives();
+                }
+            }
+        }
+        return dealScores;
+    }
+
+    /**
+     * Returns every distinct arrangement of a seating, in lexicographic order.
+     */
+    private static int[][] arrangements(int[] layout) {
+        int[] arrangement = layout.clone();
+        Arrays.sort(arrangement);
+        List<int[]> all = new ArrayList<>();
+        do {
+            all.add(arrangement.clone());
+        } while (nextArrangement(arrangement));
+        return all.toArray(new int[0][]);
+    }
+
+    /**
+     * Advances an array to its next permutation in lexicographic order.
+     *
+     * @return {@code false} if the array was already the last permutation
+     */
+    private static boolean nextArrangement(int[] values) {
+        int i = values.length - 2;
+        while (i >= 0 && values[i] >= values[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        int j = values.length - 1;
+        while (values[j] <= values[i]) {
+            j--;
+        }
+        swap(values, i, j);
+        for (int left = i + 1, right = values.length - 1; left < right; left++, right--) {
+            swap(values, left, right);
+        }
+        return true;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * Returns the standard error of the mean of a sample.
+     */
+    private static double standardError(double[] values) {
+        double mean = mean(values);
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(squares / (values.length - 1) / values.length);
+    }
+
+    private int indexOf(String name) {
+        int index = names.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException(name + " is not seated in the tournament.");
+        }
+        return index;
+    }
+
+    /**
+     * The deck orders of one deal, generated once and shared by every arrangement that plays it.
+     */
+    private static final class Deal {
+        private final SplittableRandom random; // Generates the seed of each round
+        private final List<Long> roundSeeds = new ArrayList<>();
+        private final List<int[]> orders = new ArrayList<>(); // Deck order at the start of each round
+
+        Deal(long seed) {
+            random = new SplittableRandom(seed);
+        }
+
+        /**
+         * Returns the seed of a round, generating the rounds up to it on first use.
+         */
+        long roundSeed(int round) {
+            while (roundSeeds.size() <= round) {
+                long roundSeed = random.nextLong();
+                roundSeeds.add(roundSeed);
+                int[] order = new int[Card.DECK_SIZE];
+                for (int i = 0; i < order.length; i++) {
+                    order[i] = i;
+                }
+                shuffle(order, order.length, new SplittableRandom(roundSeed));
+                orders.add(order);
+            }
+            return roundSeeds.get(round);
+        }
+
+        int[] order(int round) {
+            roundSeed(round);
+            return orders.get(round);
+        }
+
+        /**
+         * Puts the draw deck of each round of one game into the deal's order.
+         */
+        private final class DealShuffler implements Shuffler {
+            private int round = -1; // Round of the game being played
+            private SplittableRandom recycleRandom; // Shuffles decks recycled during the round
+            private final int[] scratch = new int[Card.DECK_SIZE];
+
+            @Override
+            public void shuffle(DrawDeck drawDeck, boolean recycled) {
+                if (!recycled) {
+                    round++;
+                    int[] order = order(round);
+                    recycleRandom = new SplittableRandom(~roundSeed(round));
+                    drawDeck.load(order, order.length);
+                    return;
+                }
+                int length = drawDeck.copyIndices(scratch);
+                Deal.shuffle(scratch, length, recycleRandom);
+                drawDeck.load(scratch, length);
+            }
+        }
+
+        /**
+         * Shuffles the first cards of an array with the Fisher-Yates algorithm.
+         */
+        private static void shuffle(int[] cards, int length, SplittableRandom random) {
+            for (int i = length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int card = cards[i];
+                cards[i] = cards[j];
+                cards[j] = card;
+            }
+        }
+    }
+}
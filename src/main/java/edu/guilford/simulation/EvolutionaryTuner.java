@@ -0,0 +1,363 @@
+package edu.guilford.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.ParameterizedModel;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The EvolutionaryTuner class searches for the thresholds of a {@link ParameterizedModel} that win most
+ * often against a fixed table of opponents. It keeps a Gaussian search distribution with its own spread
+ * for every parameter: each generation samples candidates from it, plays every candidate on the same
+ * seeded deals, and moves the distribution to the best candidates, the cross-entropy form of an
+ * evolution strategy.
+ * <p>
+ * Playing every candidate on the same deals, with the candidate in the same seat, means differences in
+ * win rate come from the parameters rather than the cards, so far fewer games separate the candidates.
+ * Each generation's deals and samples are drawn from the tuner's seed and the generation number, so a run
+ * is reproducible however many threads play it. After every generation the tuner can write a checkpoint,
+ * and a tuner given the same checkpoint file continues from the last finished generation.
+ */
+public class EvolutionaryTuner {
+
+    private static final int FILE_MAGIC = 0x45545431; // "ETT1", the first int of a checkpoint
+    private static final double MIN_SPREAD = 0.02; // Smallest spread, as a fraction of each parameter's range
+    private static final double SMOOTHING = 0.7; // Weight of the new distribution when it is updated
+
+    private final List<Supplier<? extends Player>> opponents; // Creates the players of the other seats
+    private final long seed;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private int candidates = 16; // Candidates sampled per generation
+    private int elites = 4; // Best candidates the distribution moves to
+    private int gamesPerCandidate = 400;
+    private Path checkpoint; // File written after every generation, or null
+
+    // Search state, saved in checkpoints
+    private int generation = 0;
+    private double[] mean = ParameterizedModel.ADVANCED.clone();
+    private double[] spread = initialSpread();
+    private double meanWinRate = Double.NaN; // Win rate of the mean in the last generation
+
+    /**
+     * Constructs a tuner playing on the common fork-join pool, starting from AdvancedModel's thresholds.
+     *
+     * @param opponents creates the players of the other seats, one factory per seat
+     * @param seed the seed of every deal and sample
+     * @throws IllegalArgumentException if there are no opponents
+     */
+    public EvolutionaryTuner(List<Supplier<? extends Player>> opponents, long seed) {
+        this(opponents, seed, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Constructs a tuner playing on the given executor, starting from AdvancedModel's thresholds.
+     *
+     * @param opponents creates the players of the other seats, one factory per seat
+     * @param seed the seed of every deal and sample
+     * @param executor the executor that plays the games
+     * @param parallelism the number of tasks to split each generation into, usually the number of threads
+     * @throws IllegalArgumentException if there are no opponents, or the parallelism is less than 1
+     */
+    public EvolutionaryTuner(List<Supplier<? extends Player>> opponents, long seed, ExecutorService executor, int parallelism) {
+        if (opponents.isEmpty()) {
+            throw new IllegalArgumentException("A tuner needs at least 1 opponent.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.opponents = List.copyOf(opponents);
+        this.seed = seed;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the number of candidates per generation and how many of the best the distribution moves to.
+     *
+     * @param candidates the candidates sampled per generation
+     * @param elites the best candidates kept
+     * @throws IllegalArgumentException if there are fewer than 2 candidates or the elites are not between 1 and the candidates
+     */
+    public void setPopulation(int candidates, int elites) {
+        if (candidates < 2 || elites < 1 || elites > candidates) {
+            throw new IllegalArgumentException("Need at least 2 candidates and from 1 to that many elites.");
+        }
+        this.candidates = candidates;
+        this.elites = elites;
+    }
+
+    /**
+     * Sets the number of games each candidate plays per generation.
+     *
+     * @param games the games per candidate
+     * @throws IllegalArgumentException if the number of games is less than 1
+     */
+    public void setGamesPerCandidate(int games) {
+        if (games < 1) {
+            throw new IllegalArgumentException("Each candidate must play at least 1 game.");
+        }
+        gamesPerCandidate = games;
+    }
+
+    /**
+     * Sets the file written after every generation. If the file already exists, the tuner continues
+     * from the generation it records.
+     *
+     * @param checkpoint the checkpoint file, or {@code null} for none
+     * @throws IOException if the file exists but cannot be read or is not a checkpoint
+     */
+    public void setCheckpoint(Path checkpoint) throws IOException {
+        this.checkpoint = checkpoint;
+        if (checkpoint != null && Files.exists(checkpoint)) {
+            load(checkpoint);
+        }
+    }
+
+    /**
+     * Runs generations until the given number have finished in total, counting those of earlier runs
+     * restored from the checkpoint.
+     *
+     * @param generations the total number of generations
+     * @return the mean of the search distribution, the best thresholds found
+     * @throws UncheckedIOException if a checkpoint cannot be written
+     * @throws IllegalStateException if the run fails or is interrupted
+     */
+    public double[] run(int generations) {
+        while (generation < generations) {
+            step();
+            if (checkpoint != null) {
+                try {
+                    save(checkpoint);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return mean.clone();
+    }
+
+    /**
+     * Returns the number of finished generations.
+     *
+     * @return the generation count
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the mean of the search distribution.
+     *
+     * @return the best thresholds found so far
+     */
+    public double[] getMean() {
+        return mean.clone();
+    }
+
+    /**
+     * Returns the spread of the search distribution.
+     *
+     * @return the standard deviation of each parameter
+     */
+    public double[] getSpread() {
+        return spread.clone();
+    }
+
+    /**
+     * Returns the win rate the previous generation's mean reached on the last generation's deals.
+     *
+     * @return the win rate, or NaN before the first generation
+     */
+    public double getMeanWinRate() {
+        return meanWinRate;
+    }
+
+    /**
+     * Plays the given thresholds against the opponents on seeded deals, rotating the candidate's seat.
+     *
+     * @param parameters the thresholds to evaluate
+     * @param firstSeed the seed of the first game; game {@code i} uses {@code firstSeed + i}
+     * @param games the number of games
+     * @return the fraction of games won
+     */
+    public double evaluate(double[] parameters, long firstSeed, int games) {
+        int wins = 0;
+        int seats = opponents.size() + 1;
+        for (int i = 0; i < games; i++) {
+            int candidateSeat = i % seats;
+            Group group = new Group();
+            for (int seat = 0, opponent = 0; seat < seats; seat++) {
+                group.addPlayer(seat == candidateSeat ? new ParameterizedModel(parameters) : opponents.get(opponent++).get());
+            }
+            new ThirtyOneGame(group, firstSeed + i).playGame();
+            if (group.getWinner() == candidateSeat + 1) {
+                wins++;
+            }
+        }
+        return (double) wins / games;
+    }
+
+    /**
+     * Returns a summary of the search state.
+     *
+     * @return the generation, mean, spread and the mean's last win rate
+     */
+    @Override
+    public String toString() {
+        return String.format("Generation: %d | Mean win rate: %.4f%nMean: %s%nSpread: %s%n", generation, meanWinRate,
+                ParameterizedModel.format(mean), ParameterizedModel.format(spread));
+    }
+
+    /**
+     * Samples, evaluates and selects one generation.
+     */
+    private void step() {
+        SplittableRandom random = new SplittableRandom(seed ^ (generation + 1) * 0x9E3779B97F4A7C15L);
+        long dealSeed = random.nextLong();
+
+        // Candidate 0 is the current mean, so its win rate shows the progress of the search
+        double[][] population = new double[candidates + 1][];
+        population[0] = mean.clone();
+        for (int c = 1; c <= candidates; c++) {
+            double[] candidate = new double[ParameterizedModel.PARAMETERS];
+            for (int i = 0; i < candidate.length; i++) {
+                candidate[i] = mean[i] + spread[i] * gaussian(random);
+            }
+            population[c] = ParameterizedModel.clamp(candidate);
+        }
+        double[] winRates = evaluateAll(population, dealSeed);
+
+        // Move the distribution towards the best sampled candidates
+        Integer[] order = new Integer[candidates];
+        for (int c = 0; c < candidates; c++) {
+            order[c] = c + 1;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(winRates[b], winRates[a]));
+        for (int i = 0; i < ParameterizedModel.PARAMETERS; i++) {
+            double eliteMean = 0;
+            for (int e = 0; e < elites; e++) {
+                eliteMean += population[order[e]][i];
+            }
+            eliteMean /= elites;
+            double variance = 0;
+            for (int e = 0; e < elites; e++) {
+                double difference = population[order[e]][i] - eliteMean;
+                variance += difference * difference;
+            }
+            double eliteSpread = Math.sqrt(variance / elites);
+            double minSpread = MIN_SPREAD * (ParameterizedModel.UPPER[i] - ParameterizedModel.LOWER[i]);
+
+            mean[i] = SMOOTHING * eliteMean + (1 - SMOOTHING) * mean[i];
+            spread[i] = Math.max(minSpread, SMOOTHING * eliteSpread + (1 - SMOOTHING) * spread[i]);
+        }
+        meanWinRate = winRates[0];
+        generation++;
+    }
+
+    /**
+     * Evaluates every candidate on the same deals, splitting the candidates among the workers.
+     */
+    private double[] evaluateAll(double[][] population, long dealSeed) {
+        double[] winRates = new double[population.length];
+        List<Callable<Void>> tasks = new ArrayList<>(parallelism);
+        int batches = Math.min(parallelism, population.length);
+        for (int b = 0; b < batches; b++) {
+            int batch = b;
+            tasks.add(() -> {
+                for (int c = batch; c < population.length; c += batches) {
+                    winRates[c] = evaluate(population[c], dealSeed, gamesPerCandidate);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tuning was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tuning failed.", e.getCause());
+        }
+        return winRates;
+    }
+
+    /**
+     * Writes the search state to a file under a temporary name and moves it into place, so an
+     * interrupted save never leaves a half-written checkpoint behind.
+     */
+    private void save(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(seed);
+            out.writeInt(generation);
+            out.writeDouble(meanWinRate);
+            for (int i = 0; i < ParameterizedModel.PARAMETERS; i++) {
+                out.writeDouble(mean[i]);
+                out.writeDouble(spread[i]);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the search state from a checkpoint.
+     */
+    private void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not a tuner checkpoint.");
+            }
+            if (in.readLong() != seed) {
+                throw new IOException(file + " was written by a tuner with a different seed.");
+            }
+            generation = in.readInt();
+            meanWinRate = in.readDouble();
+            for (int i = 0; i < ParameterizedModel.PARAMETERS; i++) {
+                mean[i] = in.readDouble();
+                spread[i] = in.readDouble();
+            }
+        }
+    }
+
+    /**
+     * Returns the starting spread, a sixth of each parameter's range.
+     */
+    private static double[] initialSpread() {
+        double[] spread = new double[ParameterizedModel.PARAMETERS];
+        for (int i = 0; i < spread.length; i++) {
+            spread[i] = (ParameterizedModel.UPPER[i] - ParameterizedModel.LOWER[i]) / 6;
+        }
+        return spread;
+    }
+
+    /**
+     * Draws a standard normal value with the Box-Muller transform.
+     */
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
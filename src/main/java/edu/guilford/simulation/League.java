@@ -0,0 +1,359 @@
+package edu.guilford.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The League class ranks a roster of player models against each other. Every game seats two models
+ * of the roster at one table, alternating seats, and its result updates both models' Glicko ratings as
+ * soon as it is finished. Tables have an even number of seats, so both models hold half of them and a
+ * game is a fair head-to-head result.
+ * <p>
+ * Each rating has a deviation that shrinks as the model plays. The next game always goes to the pair
+ * whose result is most uncertain, weighted by the pair's rating deviations and by how close the pair is
+ * expected to be. Pairs whose outcome is already clear stop getting games, so ranking a roster costs
+ * far fewer games than playing every pair equally often. Games are played on a work-stealing pool.
+ */
+public class League {
+
+    private static final double INITIAL_RATING = 1500;
+    private static final double INITIAL_DEVIATION = 350;
+    private static final double Q = Math.log(10) / 400; // Glicko's scale factor
+
+    /**
+     * A model's place in the league.
+     *
+     * @param name the model's name
+     * @param rating the model's rating
+     * @param deviation the rating's deviation; the true rating is within two deviations with about 95% confidence
+     * @param games the number of games the model has played
+     */
+    public record Standing(String name, double rating, double deviation, long games) {}
+
+    private final int seats; // Number of players at each table
+    private final ExecutorService executor; // The work-stealing pool that plays the games
+    private final int parallelism; // Number of games played at the same time
+    private final List<String> names = new ArrayList<>();
+    private final List<Supplier<? extends Player>> factories = new ArrayList<>();
+
+    // Ratings and schedule, guarded by this
+    private double[] ratings = new double[0];
+    private double[] deviations = new double[0];
+    private long[] modelGames = new long[0];
+    private long[][] pairGames = new long[0][0]; // Games finished by each pair
+    private int[][] pairPending = new int[0][0]; // Games in progress for each pair
+    private long games = 0;
+    private long remaining = 0; // Games still to be started in the current run
+    private double targetDeviation = 0; // Deviation below which a pair needs no more games
+
+    /**
+     * Constructs a league playing on the common fork-join pool.
+     *
+     * @param seats the number of players at each table, an even number
+     * @throws IllegalArgumentException if there are fewer than 2 seats, or an odd number of seats
+     */
+    public League(int seats) {
+        this(seats, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Constructs a league playing on the given executor, usually a {@link ForkJoinPool}.
+     *
+     * @param seats the number of players at each table, an even number
+     * @param executor the executor that plays the games
+     * @param parallelism the number of games to play at the same time, usually the number of threads
+     * @throws IllegalArgumentException if there are fewer than 2 seats, an odd number of seats, or the parallelism is less than 1
+     */
+    public League(int seats, ExecutorService executor, int parallelism) {
+        if (seats < 2 || seats % 2 != 0) {
+            throw new IllegalArgumentException("A table must have an even number of seats, at least 2.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.seats = seats;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Adds a model to the roster with the starting rating.
+     *
+     * @param name the model's name
+     * @param factory creates a new player of the model for every seat it takes
+     * @throws IllegalArgumentException if the name is already on the roster
+     */
+    public synchronized void addModel(String name, Supplier<? extends Player> factory) {
+        if (names.contains(name)) {
+            throw new IllegalArgumentException(name + " is already in the league.");
+        }
+        names.add(name);
+        factories.add(factory);
+
+        int models = names.size();
+        ratings = Arrays.copyOf(ratings, models);
+        deviations = Arrays.copyOf(deviations, models);
+        modelGames = Arrays.copyOf(modelGames, models);
+        ratings[models - 1] = INITIAL_RATING;
+        deviations[models - 1] = INITIAL_DEVIATION;
+
+        long[][] newPairGames = new long[models][models];
+        int[][] newPairPending = new int[models][models];
+        for (int i = 0; i < models - 1; i++) {
+            System.arraycopy(pairGames[i], 0, newPairGames[i], 0, models - 1);
+        }
+        pairGames = newPairGames;
+        pairPending = newPairPending;
+    }
+
+    /**
+     * Adds a model to the roster, named after its class.
+     *
+     * @param playerClass the model's class, which must have a public no-argument constructor
+     * @throws IllegalArgumentException if the model is already on the roster
+     */
+    public void addModel(Class<? extends Player> playerClass) {
+        addModel(playerClass.getSimpleName(), () -> {
+            try {
+                return playerClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot create a " + playerClass.getSimpleName() + ".", e);
+            }
+        });
+    }
+
+    /**
+     * Plays games until the budget is spent or every pair's outcome is settled: both ratings' deviations
+     * are below the target, or the pair is so far apart that another game would tell almost nothing.
+     *
+     * @param maxGames the most games to play in this run
+     * @param targetDeviation the deviation at which a pair is settled, or 0 to spend the whole budget
+     * @return the number of games played in this run
+     * @throws IllegalArgumentException if the budget or target is negative
+     * @throws IllegalStateException if there are fewer than 2 models, or the run fails or is interrupted
+     */
+    public long run(long maxGames, double targetDeviation) {
+        if (maxGames < 0 || targetDeviation < 0) {
+            throw new IllegalArgumentException("Budget and target deviation cannot be negative.");
+        }
+        long startGames;
+        synchronized (this) {
+            if (names.size() < 2) {
+                throw new IllegalStateException("A league needs at least 2 models.");
+            }
+            remaining = maxGames;
+            this.targetDeviation = targetDeviation;
+            startGames = games;
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            tasks.add(() -> {
+                int[] pair;
+                while ((pair = nextPair()) != null) {
+                    play(pair[0], pair[1], pair[2] == 1);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("League was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("League failed.", e.getCause());
+        }
+
+        synchronized (this) {
+            return games - startGames;
+        }
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return the game count
+     */
+    public synchronized long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of games two models have played against each other.
+     *
+     * @param first the first model's name
+     * @param second the second model's name
+     * @return the game count
+     * @throws IllegalArgumentException if a model is not on the roster
+     */
+    public synchronized long getPairGames(String first, String second) {
+        return pairGames[indexOf(first)][indexOf(second)];
+    }
+
+    /**
+     * Returns every model's standing, best rating first.
+     *
+     * @return the standings
+     */
+    public synchronized List<Standing> getStandings() {
+        List<Standing> standings = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            standings.add(new Standing(names.get(i), ratings[i], deviations[i], modelGames[i]));
+        }
+        standings.sort(Comparator.comparingDouble(Standing::rating).reversed());
+        return standings;
+    }
+
+    /**
+     * Returns a formatted table of the standings.
+     *
+     * @return one line per model, best first
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Games: ").append(games).append(System.lineSeparator());
+        int place = 1;
+        for (Standing standing : getStandings()) {
+            sb.append(String.format("%d) %s: %.0f +/- %.0f | Games: %d%n", place++, standing.name(),
+                    standing.rating(), 2 * standing.deviation(), standing.games()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Chooses the pair for the next game and marks it as in progress.
+     *
+     * @return the two model indices and 1 if the first model takes the first seat, or null if the run is over
+     */
+    private synchronized int[] nextPair() {
+        if (remaining == 0) {
+            return null;
+        }
+        int bestFirst = -1;
+        int bestSecond = -1;
+        double bestPriority = 0;
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = i + 1; j < names.size(); j++) {
+                double priority = priority(i, j);
+                if (priority > bestPriority) {
+                    bestPriority = priority;
+                    bestFirst = i;
+                    bestSecond = j;
+                }
+            }
+        }
+        if (bestFirst < 0) {
+            return null;
+        }
+        remaining--;
+        pairPending[bestFirst][bestSecond]++;
+
+        // Alternate which model takes the first seat
+        long started = pairGames[bestFirst][bestSecond] + pairPending[bestFirst][bestSecond];
+        return new int[] {bestFirst, bestSecond, started % 2 == 1 ? 1 : 0};
+    }
+
+    /**
+     * Returns how much the next game of a pair is worth: the variance of the pair's result times the
+     * pair's rating uncertainty, shared among the games already in progress. Settled pairs are worth 0.
+     */
+    private double priority(int i, int j) {
+        double combined = Math.sqrt(deviations[i] * deviations[i] + deviations[j] * deviations[j]);
+        double expected = expectedScore(ratings[i] - ratings[j], combined);
+        double variance = expected * (1 - expected);
+        if (deviations[i] < targetDeviation && deviations[j] < targetDeviation || variance < 0.01) {
+            return 0;
+        }
+        return variance * combined * combined / (1 + pairPending[i][j]);
+    }
+
+    /**
+     * Plays one game between two models and updates their ratings.
+     */
+    private void play(int first, int second, boolean firstLeads) {
+        Supplier<? extends Player> leading = factories.get(firstLeads ? first : second);
+        Supplier<? extends Player> following = factories.get(firstLeads ? second : first);
+        Group group = new Group();
+        for (int seat = 0; seat < seats; seat++) {
+            group.addPlayer((seat % 2 == 0 ? leading : following).get());
+        }
+        new ThirtyOneGame(group).playGame();
+
+        // The leading model holds the even seats, counted from 0
+        int winner = group.getWinner();
+        boolean leaderWon = winner > 0 && (winner - 1) % 2 == 0;
+        boolean firstWon = leaderWon == firstLeads;
+        record(first, second, winner > 0 ? (firstWon ? 1 : 0) : 0.5);
+    }
+
+    /**
+     * Records a finished game and applies the Glicko update to both models, treating the game as a
+     * rating period of its own.
+     */
+    private synchronized void record(int first, int second, double score) {
+        pairPending[first][second]--;
+        pairGames[first][second]++;
+        pairGames[second][first]++;
+        modelGames[first]++;
+        modelGames[second]++;
+        games++;
+
+        double firstRating = ratings[first];
+        double firstDeviation = deviations[first];
+        update(first, ratings[second], deviations[second], score);
+        update(second, firstRating, firstDeviation, 1 - score);
+    }
+
+    /**
+     * Updates one model's rating and deviation after a game against an opponent.
+     */
+    private void update(int model, double opponentRating, double opponentDeviation, double score) {
+        double g = g(opponentDeviation);
+        double expected = 1 / (1 + Math.pow(10, -g * (ratings[model] - opponentRating) / 400));
+        double inverseVariance = Q * Q * g * g * expected * (1 - expected);
+        double precision = 1 / (deviations[model] * deviations[model]) + inverseVariance;
+        ratings[model] += Q / precision * g * (score - expected);
+        deviations[model] = Math.sqrt(1 / precision);
+    }
+
+    /**
+     * Returns the expected score of a model against an opponent, given the rating difference and its uncertainty.
+     */
+    private static double expectedScore(double difference, double deviation) {
+        return 1 / (1 + Math.pow(10, -g(deviation) * difference / 400));
+    }
+
+    /**
+     * Glicko's discount for a rating's uncertainty.
+     */
+    private static double g(double deviation) {
+        return 1 / Math.sqrt(1 + 3 * Q * Q * deviation * deviation / (Math.PI * Math.PI));
+    }
+
+    /**
+     * Returns the index of a model on the roster.
+     */
+    private int indexOf(String name) {
+        int index = names.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException(name + " is not in the league.");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,419 @@
+package edu.guilford.simulation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.guilford.playerModels.Group;
+
+/**
+ * The ResultAggregator class keeps running statistics of a simulation campaign in constant memory:
+ * wins per seat and per player model, Wilson confidence intervals for the win rates, and the mean
+ * number of rounds per game.
+ * <p>
+ * It can also run a sequential probability ratio test on one model's win rate. The test compares the
+ * model's chance of winning a game with its fair share (the fraction of seats it holds) and decides as
+ * soon as the model is shown to be better or worse by the configured margin, or to be within it.
+ * Results may be recorded from several threads at once, and the totals can be written out and read back
+ * so a campaign can be checkpointed.
+ */
+public class ResultAggregator {
+
+    /**
+     * The state of the sequential test.
+     */
+    public enum Decision {
+        /** Not enough games have been played to decide. */
+        CONTINUE,
+        /** The model wins more often than its fair share. */
+        BETTER,
+        /** The model wins less often than its fair share. */
+        WORSE,
+        /** The model's win rate is within the margin of its fair share. */
+        NO_DIFFERENCE
+    }
+
+    // z-score of the confidence intervals
+    private final double z;
+
+    // Layout of the table, set by the first recorded game
+    private String[] seatModels; // Model name of each seat
+    private int[] seatModelIndex; // Index into modelNames of each seat
+    private final List<String> modelNames = new ArrayList<>();
+
+    // Running totals
+    private long games = 0;
+    private long rounds = 0;
+    private long[] seatWins;
+    private long[] modelWins;
+
+    // Sequential test configuration and state
+    private String testModel; // The model under test, or null if no test is running
+    private double delta;
+    private double acceptBound; // Log-likelihood ratio at which a hypothesis is accepted
+    private double rejectBound; // Log-likelihood ratio at which a hypothesis is rejected
+    private Decision decision = Decision.CONTINUE;
+
+    /**
+     * Constructs an aggregator with 95% confidence intervals.
+     */
+    public ResultAggregator() {
+        this(0.95);
+    }
+
+    /**
+     * Constructs an aggregator with confidence intervals at the given level.
+     *
+     * @param confidence the confidence level of the intervals, between 0 and 1
+     * @throws IllegalArgumentException if the confidence level is not between 0 and 1
+     */
+    public ResultAggregator(double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Confidence must be between 0 and 1.");
+        }
+        z = inverseNormal(0.5 + confidence / 2);
+    }
+
+    /**
+     * Starts a sequential probability ratio test on a model's win rate. The test accepts that the model
+     * is better once its win rate is more likely to be its fair share plus {@code delta} than its fair
+     * share, and that it is worse in the same way below, each with the given error rates.
+     *
+     * @param model the simple class name of the model under test
+     * @param delta the smallest difference from the fair share worth detecting
+     * @param alpha the chance of declaring a difference when there is none
+     * @param beta the chance of missing a difference of {@code delta}
+     * @throws IllegalArgumentException if a parameter is not between 0 and 1
+     */
+    public synchronized void setSequentialTest(String model, double delta, double alpha, double beta) {
+        if (!(delta > 0 && delta < 1 && alpha > 0 && alpha < 1 && beta > 0 && beta < 1)) {
+            throw new IllegalArgumentException("Delta, alpha and beta must be between 0 and 1.");
+        }
+        this.testModel = model;
+        this.delta = delta;
+        this.acceptBound = Math.log((1 - beta) / alpha);
+        this.rejectBound = Math.log(beta / (1 - alpha));
+        updateDecision();
+    }
+
+    /**
+     * Records the result of a finished game.
+     *
+     * @param group the group of players after the game
+     * @param roundsPlayed the number of rounds the game took
+     * @throws IllegalArgumentException if the group's seats differ from earlier games
+     */
+    public synchronized void record(Group group, int roundsPlayed) {
+        if (seatModels == null) {
+            setLayout(group);
+        } else if (group.size() != seatModels.length) {
+            throw new IllegalArgumentException("All games must have " + seatModels.length + " seats.");
+        }
+
+        games++;
+        rounds += roundsPlayed;
+        int winner = group.getWinner();
+        if (winner > 0) {
+            seatWins[winner - 1]++;
+            modelWins[seatModelIndex[winner - 1]]++;
+        }
+        if (testModel != null) {
+            updateDecision();
+        }
+    }
+
+    /**
+     * Returns the state of the sequential test.
+     *
+     * @return the decision so far, or {@code CONTINUE} if no test is running
+     */
+    public synchronized Decision getDecision() {
+        return decision;
+    }
+
+    /**
+     * Checks whether the sequential test has reached a decision.
+     *
+     * @return {@code true} if a campaign can stop
+     */
+    public synchronized boolean isDecided() {
+        return decision != Decision.CONTINUE;
+    }
+
+    /**
+     * Returns the number of games recorded.
+     *
+     * @return the game count
+     */
+    public synchronized long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the mean number of rounds per game.
+     *
+     * @return the mean round count, or 0 if no games have been recorded
+     */
+    public synchronized double getMeanRounds() {
+        return games == 0 ? 0 : (double) rounds / games;
+    }
+
+    /**
+     * Returns the number of wins of a seat.
+     *
+     * @param seat the seat, counted from 0
+     * @return the seat's wins
+     */
+    public synchronized long getSeatWins(int seat) {
+        return seatWins == null ? 0 : seatWins[seat];
+    }
+
+    /**
+     * Returns the number of games won by any seat holding the given model.
+     *
+     * @param model the simple class name of the model
+     * @return the model's wins
+     */
+    public synchronized long getModelWins(String model) {
+        int index = modelNames.indexOf(model);
+        return index < 0 ? 0 : modelWins[index];
+    }
+
+    /**
+     * Returns the Wilson score interval of a seat's win rate.
+     *
+     * @param seat the seat, counted from 0
+     * @return the lower and upper bounds of the interval
+     */
+    public synchronized double[] getSeatInterval(int seat) {
+        return wilson(getSeatWins(seat), games, z);
+    }
+
+    /**
+     * Returns the Wilson score interval of a model's win rate.
+     *
+     * @param model the simple class name of the model
+     * @return the lower and upper bounds of the interval
+     */
+    public synchronized double[] getModelInterval(String model) {
+        return wilson(getModelWins(model), games, z);
+    }
+
+    /**
+     * Writes the table layout, the running totals and the sequential test decision. The confidence level
+     * and the test configuration are not written; they belong to the aggregator that reads the totals back.
+     *
+     * @param out the output that receives the totals
+     * @throws IOException if the totals cannot be written
+     */
+    public synchronized void write(DataOutput out) throws IOException {
+        out.writeLong(games);
+        out.writeLong(rounds);
+        out.writeInt(seatModels == null ? 0 : seatModels.length);
+        if (seatModels != null) {
+            for (int seat = 0; seat < seatModels.length; seat++) {
+                out.writeUTF(seatModels[seat]);
+                out.writeLong(seatWins[seat]);
+            }
+        }
+        out.writeUTF(decision.name());
+    }
+
+    /**
+     * Replaces the table layout, running totals and sequential test decision with totals written by
+     * {@link #write(DataOutput)}.
+     *
+     * @param in the input holding the totals
+     * @throws IOException if the totals cannot be read
+     */
+    public synchronized void read(DataInput in) throws IOException {
+        games = in.readLong();
+        rounds = in.readLong();
+        int seats = in.readInt();
+        modelNames.clear();
+        if (seats == 0) {
+            seatModels = null;
+            seatModelIndex = null;
+            seatWins = null;
+            modelWins = null;
+        } else {
+            String[] models = new String[seats];
+            long[] wins = new long[seats];
+            for (int seat = 0; seat < seats; seat++) {
+                models[seat] = in.readUTF();
+                wins[seat] = in.readLong();
+            }
+            setLayout(models);
+            seatWins = wins;
+            for (int seat = 0; seat < seats; seat++) {
+                modelWins[seatModelIndex[seat]] += wins[seat];
+            }
+        }
+        try {
+            decision = Decision.valueOf(in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown sequential test decision.", e);
+        }
+    }
+
+    /**
+     * Computes the Wilson score interval of a binomial proportion.
+     *
+     * @param successes the number of successes
+     * @param trials the number of trials
+     * @param z the z-score of the confidence level
+     * @return the lower and upper bounds of the interval, or [0, 1] if there were no trials
+     */
+    public static double[] wilson(long successes, long trials, double z) {
+        if (trials == 0) {
+            return new double[] {0, 1};
+        }
+        double p = (double) successes / trials;
+        double z2 = z * z;
+        double denominator = 1 + z2 / trials;
+        double centre = (p + z2 / (2 * trials)) / denominator;
+        double margin = z * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / denominator;
+        return new double[] {Math.max(0, centre - margin), Math.min(1, centre + margin)};
+    }
+
+    /**
+     * Returns a summary of the win rates of every seat and model.
+     *
+     * @return a formatted, multi-line summary
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d | Mean rounds per game: %.2f", games, getMeanRounds()))
+          .append(System.lineSeparator());
+        if (seatModels == null) {
+            return sb.toString();
+        }
+        for (int seat = 0; seat < seatModels.length; seat++) {
+            double[] interval = wilson(seatWins[seat], games, z);
+            sb.append(String.format("Player %d (%s) wins: %d | Win rate: %.4f [%.4f, %.4f]", seat + 1,
+                    seatModels[seat], seatWins[seat], rate(seatWins[seat]), interval[0], interval[1]))
+              .append(System.lineSeparator());
+        }
+        for (int model = 0; model < modelNames.size(); model++) {
+            double[] interval = wilson(modelWins[model], games, z);
+            sb.append(String.format("%s wins: %d | Win rate: %.4f [%.4f, %.4f] | Fair share: %.4f",
+                    modelNames.get(model), modelWins[model], rate(modelWins[model]), interval[0], interval[1],
+                    fairShare(model)))
+              .append(System.lineSeparator());
+        }
+        if (testModel != null) {
+            sb.append("Sequential test of ").append(testModel).append(": ").append(decision)
+              .append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Records which model sits in each seat.
+     */
+    private void setLayout(Group group) {
+        String[] models = new String[group.size()];
+        for (int seat = 0; seat < models.length; seat++) {
+            models[seat] = group.getPlayers().get(seat).getClass().getSimpleName();
+        }
+        setLayout(models);
+    }
+
+    /**
+     * Records the model name of each seat and clears the win counts.
+     */
+    private void setLayout(String[] models) {
+        int seats = models.length;
+        seatModels = models;
+        seatModelIndex = new int[seats];
+        for (int seat = 0; seat < seats; seat++) {
+            if (!modelNames.contains(seatModels[seat])) {
+                modelNames.add(seatModels[seat]);
+            }
+            seatModelIndex[seat] = modelNames.indexOf(seatModels[seat]);
+        }
+        seatWins = new long[seats];
+        modelWins = new long[modelNames.size()];
+    }
+
+    /**
+     * Returns the fraction of seats held by a model.
+     */
+    private double fairShare(int model) {
+        int seats = 0;
+        for (int index : seatModelIndex) {
+            if (index == model) {
+                seats++;
+            }
+        }
+        return (double) seats / seatModelIndex.length;
+    }
+
+    /**
+     * Returns a number of wins as a fraction of the games played.
+     */
+    private double rate(long wins) {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /**
+     * Recomputes the sequential test decision from the current win and loss counts.
+     * The log-likelihood ratios are computed from counts, so they do not depend on the order
+     * in which games were recorded.
+     */
+    private void updateDecision() {
+        int model = modelNames.indexOf(testModel);
+        if (model < 0 || decision != Decision.CONTINUE) {
+            return;
+        }
+        double p0 = fairShare(model);
+        long wins = modelWins[model];
+        long losses = games - wins;
+
+        double upper = logLikelihoodRatio(wins, losses, p0, Math.min(p0 + delta, 1 - 1e-9));
+        double lower = logLikelihoodRatio(wins, losses, p0, Math.max(p0 - delta, 1e-9));
+        if (upper >= acceptBound) {
+            decision = Decision.BETTER;
+        } else if (lower >= acceptBound) {
+            decision = Decision.WORSE;
+        } else if (upper <= rejectBound && lower <= rejectBound) {
+            decision = Decision.NO_DIFFERENCE;
+        }
+    }
+
+    /**
+     * Returns the log-likelihood ratio of win rate p1 against win rate p0.
+     */
+    private static double logLikelihoodRatio(long wins, long losses, double p0, double p1) {
+        return wins * Math.log(p1 / p0) + losses * Math.log((1 - p1) / (1 - p0));
+    }
+
+    /**
+     * Returns the standard normal quantile of a probability, using Acklam's rational approximation.
+     */
+    private static double inverseNormal(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        } else if (p > 1 - low) {
+            return -inverseNormal(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
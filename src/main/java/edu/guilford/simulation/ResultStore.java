@@ -0,0 +1,576 @@
+package edu.guilford.simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.guilford.GameListener;
+import edu.guilford.playerModels.Group;
+import edu.guilford.playerModels.Player;
+
+/**
+ * The ResultStore class keeps the results of simulation campaigns on disk, one record per game and one per
+ * round, so campaigns far larger than the heap can be kept and analysed later.
+ * <p>
+ * Every field is a column of its own: a file of fixed-width values, one per record, mapped into memory in
+ * segments of 4M records. Appending writes straight into the mapped pages, and a query reads only the
+ * columns it needs, sequentially, without copying the records onto the heap. A game's rounds are stored
+ * together, so a round's game and a game's rounds can be found without an index.
+ * <p>
+ * The game columns hold the seed, the model of each seat, the winner, the index of the first round and the
+ * number of rounds. The round columns hold the game, the knocking and losing seats, the lives lost, the
+ * number of turns and the final hand value of every seat. The record counts and model names are kept in a
+ * small metadata file, rewritten by {@link #flush()} and {@link #close()}; records appended after the last
+ * flush are lost if the program stops without closing the store.
+ */
+public class ResultStore implements Closeable {
+
+    private static final int FILE_MAGIC = 0x52535431; // "RST1", the first int of the metadata file
+    private static final int SEGMENT_SHIFT = 22; // Each mapped segment holds 2^22 records
+    private static final int MAX_MODELS = 256; // Model numbers are stored in one byte
+    private static final int MAX_HAND_VALUE = 33; // Three aces of one suit, which only several decks can deal
+
+    /**
+     * The knocker's results at each hand value.
+     *
+     * @param rounds the number of rounds in which the knocker's final hand had each value, indexed by value
+     * @param losses the number of those rounds in which the knocker had the lowest hand
+     */
+    public record KnockStats(long[] rounds, long[] losses) {
+
+        /**
+         * Returns the fraction of rounds the knocker lost at a hand value.
+         *
+         * @param handValue the knocker's final hand value
+         * @return the loss rate, or NaN if no knocker ended with that value
+         */
+        public double lossRate(int handValue) {
+            return (double) losses[handValue] / rounds[handValue];
+        }
+    }
+
+    /**
+     * Receives the rounds of the store one at a time.
+     */
+    @FunctionalInterface
+    public interface RoundVisitor {
+
+        /**
+         * Called once for every round, in the order they were stored.
+         *
+         * @param round the round's index in the store
+         * @param knockSeat the seat that knocked, counted from 0
+         * @param loserSeat the seat with the lowest hand, counted from 0
+         * @param livesLost the number of lives the loser lost
+         * @param turns the number of turns played in the round
+         */
+        void visit(long round, int knockSeat, int loserSeat, int livesLost, int turns);
+    }
+
+    private final Path directory; // Directory holding the column and metadata files
+    private final int seats; // Number of seats at every table
+    private final List<String> modelNames = new ArrayList<>();
+    private final Map<String, Integer> modelNumbers = new LinkedHashMap<>();
+    private long games = 0;
+    private long rounds = 0;
+
+    // Game columns
+    private final Column gameSeed;
+    private final Column gameModels; // One byte per seat
+    private final Column gameWinner; // Winning seat counted from 0, or -1
+    private final Column gameFirstRound;
+    private final Column gameRounds;
+
+    // Round columns
+    private final Column roundGame;
+    private final Column roundKnocker;
+    private final Column roundLoser;
+    private final Column roundLivesLost;
+    private final Column roundTurns;
+    private final Column roundHandValues; // One byte per seat
+
+    /**
+     * Opens the store in a directory, creating it if it does not exist yet.
+     *
+     * @param directory the directory holding the store's files
+     * @param seats the number of seats at every table
+     * @throws IOException if the files cannot be opened
+     * @throws IllegalArgumentException if there are fewer than 2 or more than 127 seats, or the store exists with another seat count
+     */
+    public ResultStore(Path directory, int seats) throws IOException {
+        // Seats are stored in signed bytes, with -1 for no seat
+        if (seats < 2 || seats > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("A table must have from 2 to " + Byte.MAX_VALUE + " seats.");
+        }
+        this.directory = directory;
+        this.seats = seats;
+        Files.createDirectories(directory);
+        if (Files.exists(metadataFile())) {
+            loadMetadata();
+        }
+
+        gameSeed = new Column(directory.resolve("game-seed.col"), Long.BYTES);
+        gameModels = new Column(directory.resolve("game-models.col"), seats);
+        gameWinner = new Column(directory.resolve("game-winner.col"), 1);
+        gameFirstRound = new Column(directory.resolve("game-first-round.col"), Long.BYTES);
+        gameRounds = new Column(directory.resolve("game-rounds.col"), Short.BYTES);
+        roundGame = new Column(directory.resolve("round-game.col"), Long.BYTES);
+        roundKnocker = new Column(directory.resolve("round-knocker.col"), 1);
+        roundLoser = new Column(directory.resolve("round-loser.col"), 1);
+        roundLivesLost = new Column(directory.resolve("round-lives-lost.col"), 1);
+        roundTurns = new Column(directory.resolve("round-turns.col"), Short.BYTES);
+        roundHandValues = new Column(directory.resolve("round-hand-values.col"), seats);
+    }
+
+    /**
+     * Creates a listener that stores the game it is attached to when the game finishes. Every game needs
+     * its own listener, and the group must be the one the game is played with.
+     *
+     * @param group the group playing the game
+     * @return the listener
+     * @throws IllegalArgumentException if the group has the wrong number of players
+     */
+    public GameListener recorder(Group group) {
+        if (group.size() != seats) {
+            throw new IllegalArgumentException("Group must have " + seats + " players.");
+        }
+        return new Recorder(group);
+    }
+
+    /**
+     * Returns the number of seats at every table.
+     *
+     * @return the seat count
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    /**
+     * Returns the number of games stored.
+     *
+     * @return the game count
+     */
+    public synchronized long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of rounds stored.
+     *
+     * @return the round count
+     */
+    public synchronized long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns the seed of a stored game.
+     *
+     * @param game the game's index in the store
+     * @return the seed
+     * @throws IndexOutOfBoundsException if there is no such game
+     */
+    public synchronized long getSeed(long game) {
+        return gameSeed.getLong(checkGame(game));
+    }
+
+    /**
+     * Returns the model that held a seat in a stored game.
+     *
+     * @param game the game's index in the store
+     * @param seat the seat, counted from 0
+     * @return the model's simple class name
+     * @throws IndexOutOfBoundsException if there is no such game or seat
+     */
+    public synchronized String getModel(long game, int seat) {
+        return modelNames.get(Byte.toUnsignedInt(gameModels.getByte(checkGame(game), checkSeat(seat))));
+    }
+
+    /**
+     * Returns the game a stored round belongs to.
+     *
+     * @param round the round's index in the store
+     * @return the game's index in the store
+     * @throws IndexOutOfBoundsException if there is no such round
+     */
+    public synchronized long getGame(long round) {
+        return roundGame.getLong(checkRound(round));
+    }
+
+    /**
+     * Returns a seat's final hand value in a stored round.
+     *
+     * @param round the round's index in the store
+     * @param seat the seat, counted from 0
+     * @return the hand value
+     * @throws IndexOutOfBoundsException if there is no such round or seat
+     */
+    public synchronized int getHandValue(long round, int seat) {
+        return roundHandValues.getByte(checkRound(round), checkSeat(seat));
+    }
+
+    /**
+     * Passes every stored round to a visitor, reading the columns in order.
+     *
+     * @param visitor the visitor
+     */
+    public synchronized void scanRounds(RoundVisitor visitor) {
+        for (long round = 0; round < rounds; round++) {
+            visitor.visit(round, roundKnocker.getByte(round, 0), roundLoser.getByte(round, 0),
+                    roundLivesLost.getByte(round, 0), roundTurns.getShort(round));
+        }
+    }
+
+    /**
+     * Counts, for each final hand value of the knocker, how many rounds ended with it and how many of those
+     * the knocker lost.
+     *
+     * @return the counts, indexed by hand value from 0 to 33
+     */
+    public synchronized KnockStats knockerLossesByHandValue() {
+        long[] counts = new long[MAX_HAND_VALUE + 1];
+        long[] losses = new long[MAX_HAND_VALUE + 1];
+
+        // Walk one segment at a time, reading the mapped pages directly
+        for (long first = 0; first < rounds; first += 1L << SEGMENT_SHIFT) {
+            MappedByteBuffer knockers = roundKnocker.segment(first);
+            MappedByteBuffer losers = roundLoser.segment(first);
+            MappedByteBuffer handValues = roundHandValues.segment(first);
+            int length = (int) Math.min(rounds - first, 1L << SEGMENT_SHIFT);
+            for (int i = 0; i < length; i++) {
+                int knocker = knockers.get(i);
+                int value = handValues.get(i * seats + knocker);
+                counts[value]++;
+                if (losers.get(i) == knocker) {
+                    losses[value]++;
+                }
+            }
+        }
+        return new KnockStats(counts, losses);
+    }
+
+    /**
+     * Counts the games each model won.
+     *
+     * @return the wins of each model, in the order the models were first stored
+     */
+    public synchronized Map<String, Long> winsByModel() {
+        long[] wins = new long[modelNames.size()];
+        for (long game = 0; game < games; game++) {
+            int winner = gameWinner.getByte(game, 0);
+            if (winner >= 0) {
+                wins[Byte.toUnsignedInt(gameModels.getByte(game, winner))]++;
+            }
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int model = 0; model < wins.length; model++) {
+            result.put(modelNames.get(model), wins[model]);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the mapped pages and the record counts to disk.
+     *
+     * @throws IOException if the metadata cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        for (Column column : columns()) {
+            column.force();
+        }
+        saveMetadata();
+    }
+
+    /**
+     * Flushes the store and closes its files.
+     *
+     * @throws IOException if the store cannot be flushed or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        for (Column column : columns()) {
+            column.close();
+        }
+    }
+
+    /**
+     * Appends a finished game and its rounds.
+     */
+    private synchronized void append(long seed, String[] models, int winner, RoundBuffer buffer) {
+        long game = games;
+        gameSeed.putLong(game, seed);
+        for (int seat = 0; seat < seats; seat++) {
+            gameModels.putByte(game, seat, modelNumber(models[seat]));
+        }
+        gameWinner.putByte(game, 0, winner);
+        gameFirstRound.putLong(game, rounds);
+        gameRounds.putShort(game, buffer.size);
+
+        for (int i = 0; i < buffer.size; i++) {
+            long round = rounds + i;
+            roundGame.putLong(round, game);
+            roundKnocker.putByte(round, 0, buffer.knockers[i]);
+            roundLoser.putByte(round, 0, buffer.losers[i]);
+            roundLivesLost.putByte(round, 0, buffer.livesLost[i]);
+            roundTurns.putShort(round, buffer.turns[i]);
+            for (int seat = 0; seat < seats; seat++) {
+                roundHandValues.putByte(round, seat, buffer.handValues[i * seats + seat]);
+            }
+        }
+        games++;
+        rounds += buffer.size;
+    }
+
+    /**
+     * Returns the number of a model, adding it to the model names if it is new.
+     *
+     * @throws IllegalStateException if the store already holds the most models it can
+     */
+    private int modelNumber(String model) {
+        Integer number = modelNumbers.get(model);
+        if (number == null) {
+            if (modelNames.size() == MAX_MODELS) {
+                throw new IllegalStateException("A store cannot hold more than " + MAX_MODELS + " models.");
+            }
+            number = modelNames.size();
+            modelNames.add(model);
+            modelNumbers.put(model, number);
+        }
+        return number;
+    }
+
+    private Column[] columns() {
+        return new Column[] {gameSeed, gameModels, gameWinner, gameFirstRound, gameRounds,
+            roundGame, roundKnocker, roundLoser, roundLivesLost, roundTurns, roundHandValues};
+    }
+
+    private Path metadataFile() {
+        return directory.resolve("store.meta");
+    }
+
+    /**
+     * Writes the record counts and model names under a temporary name and moves them into place.
+     */
+    private void saveMetadata() throws IOException {
+        Path file = metadataFile();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(seats);
+            out.writeLong(games);
+            out.writeLong(rounds);
+            out.writeInt(modelNames.size());
+            for (String model : modelNames) {
+                out.writeUTF(model);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the record counts and model names of an existing store.
+     */
+    private void loadMetadata() throws IOException {
+        Path file = metadataFile();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not a result store.");
+            }
+            int storedSeats = in.readInt();
+            if (storedSeats != seats) {
+                throw new IllegalArgumentException(directory + " holds tables of " + storedSeats + " seats.");
+            }
+            games = in.readLong();
+            rounds = in.readLong();
+            int models = in.readInt();
+            for (int model = 0; model < models; model++) {
+                modelNumber(in.readUTF());
+            }
+        }
+    }
+
+    private long checkGame(long game) {
+        if (game < 0 || game >= games) {
+            throw new IndexOutOfBoundsException("Game " + game + " is not in the store.");
+        }
+        return game;
+    }
+
+    private long checkRound(long round) {
+        if (round < 0 || round >= rounds) {
+            throw new IndexOutOfBoundsException("Round " + round + " is not in the store.");
+        }
+        return round;
+    }
+
+    private int checkSeat(int seat) {
+        if (seat < 0 || seat >= seats) {
+            throw new IndexOutOfBoundsException("Seat " + seat + " is not at the table.");
+        }
+        return seat;
+    }
+
+    /**
+     * One column file, mapped into memory one segment at a time as records are added.
+     */
+    private static final class Column {
+        private final FileChannel channel;
+        private final int width; // Bytes per record
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+        Column(Path file, int width) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.width = width;
+        }
+
+        /**
+         * Returns the segment holding a record, mapping new segments as the column grows.
+         */
+        private MappedByteBuffer segment(long record) {
+            int index = (int) (record >>> SEGMENT_SHIFT);
+            while (segments.size() <= index) {
+                long size = (long) width << SEGMENT_SHIFT;
+                try {
+                    MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, segments.size() * size, size);
+                    segment.order(ByteOrder.LITTLE_ENDIAN);
+                    segments.add(segment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return segments.get(index);
+        }
+
+        /**
+         * Returns the position of a record within its segment.
+         */
+        private int offset(long record) {
+            return (int) (record & ((1 << SEGMENT_SHIFT) - 1)) * width;
+        }
+
+        byte getByte(long record, int position) {
+            return segment(record).get(offset(record) + position);
+        }
+
+        void putByte(long record, int position, int value) {
+            segment(record).put(offset(record) + position, (byte) value);
+        }
+
+        short getShort(long record) {
+            return segment(record).getShort(offset(record));
+        }
+
+        void putShort(long record, int value) {
+            segment(record).putShort(offset(record), (short) value);
+        }
+
+        long getLong(long record) {
+            return segment(record).getLong(offset(record));
+        }
+
+        void putLong(long record, long value) {
+            segment(record).putLong(offset(record), value);
+        }
+
+        void force() {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * The rounds of a game in progress, kept until the game finishes and is appended as a whole.
+     */
+    private static final class RoundBuffer {
+        private final int seats;
+        int size = 0;
+        int[] knockers = new int[16];
+        int[] losers = new int[16];
+        int[] livesLost = new int[16];
+        int[] turns = new int[16];
+        int[] handValues;
+
+        RoundBuffer(int seats) {
+            this.seats = seats;
+            handValues = new int[16 * seats];
+        }
+
+        /**
+         * Makes room for one more round.
+         */
+        void grow() {
+            if (size == knockers.length) {
+                knockers = Arrays.copyOf(knockers, size * 2);
+                losers = Arrays.copyOf(losers, size * 2);
+                livesLost = Arrays.copyOf(livesLost, size * 2);
+                turns = Arrays.copyOf(turns, size * 2);
+                handValues = Arrays.copyOf(handValues, size * 2 * seats);
+            }
+        }
+    }
+
+    /**
+     * Collects the rounds of one game and stores the game when it finishes.
+     */
+    private final class Recorder implements GameListener {
+        private final List<Player> players; // The players in seat order
+        private final RoundBuffer buffer = new RoundBuffer(seats);
+        private long seed;
+
+        Recorder(Group group) {
+            this.players = group.getPlayers();
+        }
+
+        @Override
+        public void gameStarted(long seed, int seats) {
+            this.seed = seed;
+            buffer.size = 0;
+        }
+
+        @Override
+        public void roundFinished(Player knocker, Player loser, int livesLost, int turns) {
+            buffer.grow();
+            int i = buffer.size++;
+            buffer.knockers[i] = players.indexOf(knocker);
+            buffer.losers[i] = players.indexOf(loser);
+            buffer.livesLost[i] = livesLost;
+            buffer.turns[i] = turns;
+            for (int seat = 0; seat < seats; seat++) {
+                buffer.handValues[i * seats + seat] = players.get(seat).getHandValue();
+            }
+        }
+
+        @Override
+        public void gameFinished(int winner) {
+            String[] models = new String[seats];
+            for (int seat = 0; seat < seats; seat++) {
+                models[seat] = players.get(seat).getClass().getSimpleName();
+            }
+            append(seed, models, winner > 0 ? winner - 1 : -1, buffer);
+        }
+    }
+}
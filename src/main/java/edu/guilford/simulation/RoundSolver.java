@@ -0,0 +1,417 @@
+package edu.guilford.simulation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.guilford.gameObjects.Card;
+import edu.guilford.playerModels.RulePolicy;
+
+/**
+ * The RoundSolver class computes exactly how likely each seat is to lose the rest of a round, given the
+ * cards already dealt and a fixed {@link RulePolicy} at every seat. Where a simulation estimates the odds
+ * from sampled games, the solver sums over every order the unseen cards can come off the draw deck.
+ * <p>
+ * The rule-based policies only look at the suit and point value of a card, so cards with the same suit and
+ * value are interchangeable: the solver counts the unseen cards of each of the 40 kinds instead of tracking
+ * 52 cards, and each draw branches once per kind, weighted by how many of that kind are left. The draw
+ * deck is always in uniformly random order, so the state at the start of a turn is just the hands, the
+ * discard pile, the seat to move, the turn counters and who knocked. Every state is solved once and
+ * remembered, and the turns follow {@link edu.guilford.ThirtyOneGame} step by step, as BatchEngine does.
+ * <p>
+ * Every draw multiplies the work by up to 40, so the solver is meant for short positions, such as a round
+ * after the first knock or a late round with few turns left. A node budget stops positions that are too
+ * large. The remembered states are kept between calls, so repeated questions about related positions of the
+ * same table are answered quickly.
+ */
+public class RoundSolver {
+
+    private static final int HAND = 4; // Slots per hand: three cards plus the card drawn during a turn
+    private static final int SUITS = 4;
+    private static final int KINDS = 40; // Distinct (suit, point value) pairs
+    private static final int KINDS_PER_SUIT = 10; // Values 2 to 9, the 10-point cards, and the ace
+
+    /**
+     * The chance of each outcome of a round.
+     *
+     * @param losses the probability that each seat loses a life, indexed from 0
+     * @param doubleLoss the probability that the knocking player has the lowest hand and loses two lives
+     * @param states the number of states the solve had to work out, not counting remembered ones
+     */
+    public record Outcome(double[] losses, double doubleLoss, long states) {
+
+        /**
+         * Returns the probability that a seat loses a life.
+         *
+         * @param seat the seat, counted from 0
+         * @return the probability
+         */
+        public double loss(int seat) {
+            return losses[seat];
+        }
+    }
+
+    private final RulePolicy[] policies; // Strategy of each seat
+    private final int seats; // Number of seats at the table
+    private final Map<State, double[]> solved = new HashMap<>(); // Outcome of every state already solved
+    private long nodeBudget = 5_000_000; // Most new states a single solve may work out
+    private long nodes = 0; // New states worked out by the current solve
+
+    /**
+     * Constructs a solver for a table of rule-based strategies.
+     *
+     * @param policies the strategy of each seat
+     * @throws IllegalArgumentException if there are fewer than 2 or more than 4 seats
+     */
+    public RoundSolver(RulePolicy[] policies) {
+        if (policies.length < 2 || policies.length > 4) {
+            throw new IllegalArgumentException("Number of players must be between 2 and 4.");
+        }
+        this.policies = policies.clone();
+        this.seats = policies.length;
+    }
+
+    /**
+     * Sets the most new states a single solve may work out before it gives up.
+     *
+     * @param nodeBudget the budget
+     * @throws IllegalArgumentException if the budget is less than 1
+     */
+    public void setNodeBudget(long nodeBudget) {
+        if (nodeBudget < 1) {
+            throw new IllegalArgumentException("Node budget must be at least 1.");
+        }
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Returns the number of solved states remembered for later calls.
+     *
+     * @return the state count
+     */
+    public int getCachedStates() {
+        return solved.size();
+    }
+
+    /**
+     * Forgets every solved state.
+     */
+    public void clearCache() {
+        solved.clear();
+    }
+
+    /**
+     * Solves a round from the deal, before the first turn. Seat 1 moves first, as in ThirtyOneGame.
+     *
+     * @param hands the three cards dealt to each seat, in the order they were dealt
+     * @param discardCard the card turned up on the discard pile
+     * @return the chance of each outcome
+     * @throws IllegalArgumentException if the cards are invalid or dealt twice
+     * @throws IllegalStateException if the round needs more states than the node budget
+     */
+    public Outcome solveDeal(int[][] hands, int discardCard) {
+        return solve(hands, new int[] {discardCard}, 0, new int[seats], -1);
+    }
+
+    /**
+     * Solves the rest of a round from the start of a turn. Every card that is neither in a hand nor on the
+     * discard pile is taken to be in the draw deck, in random order.
+     *
+     * @param hands the three cards held by each seat, in the order they were received
+     * @param discardPile the cards of the discard pile, bottom first
+     * @param lastSeat the seat that played the last turn; the next seat moves now
+     * @param turnCounters the number of times each seat has been asked to knock this round
+     * @param knockSeat the seat that knocked, or -1 if nobody has; every seat that has moved since has knocked too
+     * @return the chance of each outcome
+     * @throws IllegalArgumentException if the position is invalid or a card appears twice
+     * @throws IllegalStateException if the round needs more states than the node budget
+     */
+    public Outcome solve(int[][] hands, int[] discardPile, int lastSeat, int[] turnCounters, int knockSeat) {
+        if (hands.length != seats || turnCounters.length != seats) {
+            throw new IllegalArgumentException("Position must have a hand and a turn counter for each of " + seats + " seats.");
+        }
+        if (lastSeat < 0 || lastSeat >= seats || knockSeat < -1 || knockSeat >= seats) {
+            throw new IllegalArgumentException("Seat out of range.");
+        }
+
+        State state = new State(seats, Card.DECK_SIZE);
+        boolean[] seen = new boolean[Card.DECK_SIZE];
+        for (int kind = 0; kind < KINDS; kind++) {
+            state.drawCounts[kind] = kind % KINDS_PER_SUIT == 8 ? 4 : 1;
+        }
+        state.drawTotal = Card.DECK_SIZE;
+        for (int seat = 0; seat < seats; seat++) {
+            if (hands[seat].length != 3) {
+                throw new IllegalArgumentException("Every hand must hold 3 cards.");
+            }
+            if (turnCounters[seat] < 0) {
+                throw new IllegalArgumentException("Turn counters cannot be negative.");
+            }
+            state.turnCounters[seat] = turnCounters[seat];
+            for (int i = 0; i < 3; i++) {
+                int card = take(state, hands[seat][i], seen);
+                state.cards[seat * HAND + i] = card;
+                state.suitValues[seat * SUITS + Card.suitOf(card)] += Card.pointValue(card);
+            }
+        }
+        for (int card : discardPile) {
+            state.pile[state.pileSize++] = take(state, card, seen);
+        }
+        state.lastSeat = lastSeat;
+        state.knockSeat = knockSeat;
+
+        nodes = 0;
+        double[] result = value(state);
+        return new Outcome(Arrays.copyOf(result, seats), result[seats], nodes);
+    }
+
+    /**
+     * Removes a dealt card from the draw counts and returns the card standing for its kind.
+     */
+    private static int take(State state, int card, boolean[] seen) {
+        if (card < 0 || card >= Card.DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid card index: " + card);
+        }
+        if (seen[card]) {
+            throw new IllegalArgumentException("Card " + Card.ofIndex(card) + " appears twice.");
+        }
+        seen[card] = true;
+        int kind = kindOf(card);
+        state.drawCounts[kind]--;
+        state.drawTotal--;
+        return cardOf(kind);
+    }
+
+    /**
+     * Returns the outcome of a state at the start of a turn, solving it if it has not been solved before.
+     * The returned array holds each seat's chance of losing, then the chance of a double loss, and must not be changed.
+     */
+    private double[] value(State state) {
+        double[] result = solved.get(state);
+        if (result != null) {
+            return result;
+        }
+        if (++nodes > nodeBudget) {
+            throw new IllegalStateException("Round needs more than " + nodeBudget + " states.");
+        }
+        result = playTurn(state.copy());
+        solved.put(state, result);
+        return result;
+    }
+
+    /**
+     * Plays a turn for the next seat, following {@code ThirtyOneGame.playTurn}.
+     */
+    private double[] playTurn(State state) {
+        state.lastSeat = (state.lastSeat + 1) % seats;
+
+        // Ensure discard and draw decks are not empty
+        if (state.pileSize == 0) {
+            double[] result = new double[seats + 1];
+            for (int kind = 0; kind < KINDS; kind++) {
+                if (state.drawCounts[kind] > 0) {
+                    State next = state.copy();
+                    double chance = next.draw(kind);
+                    next.pile[next.pileSize++] = cardOf(kind);
+                    add(result, afterRefill(next), chance);
+                }
+            }
+            return result;
+        } else if (state.drawTotal == 0) {
+            for (int i = 0; i < state.pileSize - 1; i++) {
+                state.drawCounts[kindOf(state.pile[i])]++;
+            }
+            state.drawTotal = state.pileSize - 1;
+            state.pile[0] = state.pile[state.pileSize - 1];
+            state.pileSize = 1;
+        }
+        return afterRefill(state);
+    }
+
+    /**
+     * Plays the knock and draw of a turn once both decks hold cards.
+     */
+    private double[] afterRefill(State state) {
+        int seat = state.lastSeat;
+
+        // End the round if all players have knocked
+        if (seat == state.knockSeat) {
+            return endRound(state);
+        }
+
+        // Start the knock sequence if no player has knocked yet
+        RulePolicy policy = policies[seat];
+        if (state.knockSeat < 0) {
+            state.turnCounters[seat]++;
+            if (policy.knocks(handValue(state, seat), state.turnCounters[seat])) {
+                state.knockSeat = seat;
+                return value(state);
+            }
+        }
+
+        // Take the discard card, or branch over every kind of card the draw deck can give
+        int topDiscard = state.pile[state.pileSize - 1];
+        if (policy.takesDiscard(state.cards, seat * HAND, state.suitValues, seat * SUITS, topDiscard)) {
+            state.pileSize--;
+            return afterDraw(state, topDiscard);
+        }
+        if (state.drawTotal == 0) {
+            throw new IllegalStateException("Draw deck is empty.");
+        }
+        double[] result = new double[seats + 1];
+        for (int kind = 0; kind < KINDS; kind++) {
+            if (state.drawCounts[kind] > 0) {
+                State next = state.copy();
+                double chance = next.draw(kind);
+                add(result, afterDraw(next, cardOf(kind)), chance);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the drawn card to the hand, discards, and moves on to the next turn.
+     */
+    private double[] afterDraw(State state, int drawn) {
+        int seat = state.lastSeat;
+        int hand = seat * HAND;
+        int suits = seat * SUITS;
+        state.cards[hand + 3] = drawn;
+        state.suitValues[suits + Card.suitOf(drawn)] += Card.pointValue(drawn);
+
+        int position = policies[seat].discardPosition(state.cards, hand, state.suitValues, suits);
+        int discarded = state.cards[hand + position];
+        state.pile[state.pileSize++] = discarded;
+        System.arraycopy(state.cards, hand + position + 1, state.cards, hand + position, 3 - position);
+        state.cards[hand + 3] = 0;
+        state.suitValues[suits + Card.suitOf(discarded)] -= Card.pointValue(discarded);
+        return value(state);
+    }
+
+    /**
+     * Finds the lowest hand, scanning the seats in the same order as ThirtyOneGame.
+     */
+    private double[] endRound(State state) {
+        int minScore = 31;
+        int minSeat = (state.lastSeat + 1) % seats;
+        int seat = minSeat;
+        for (int i = 0; i < seats; i++) {
+            seat = (seat + 1) % seats;
+            int value = handValue(state, seat);
+            if (value < minScore) {
+                minScore = value;
+                minSeat = seat;
+            }
+        }
+        double[] result = new double[seats + 1];
+        result[minSeat] = 1;
+        result[seats] = minSeat == state.knockSeat ? 1 : 0;
+        return result;
+    }
+
+    /**
+     * Returns the value of a seat's 3-card hand, the highest point total of any suit.
+     */
+    private static int handValue(State state, int seat) {
+        int suits = seat * SUITS;
+        return Math.max(Math.max(state.suitValues[suits], state.suitValues[suits + 1]),
+                Math.max(state.suitValues[suits + 2], state.suitValues[suits + 3]));
+    }
+
+    /**
+     * Adds a branch's outcome, weighted by its chance, to a total.
+     */
+    private static void add(double[] total, double[] branch, double chance) {
+        for (int i = 0; i < total.length; i++) {
+            total[i] += branch[i] * chance;
+        }
+    }
+
+    /**
+     * Returns the kind of a card: its suit times 10, plus 0 to 7 for values 2 to 9, 8 for the 10-point cards and 9 for the ace.
+     */
+    static int kindOf(int card) {
+        int value = Card.pointValue(card);
+        return Card.suitOf(card) * KINDS_PER_SUIT + (value == 11 ? 9 : value - 2);
+    }
+
+    /**
+     * Returns the card that stands for a kind: the card of that value, or the ten for the 10-point cards.
+     */
+    static int cardOf(int kind) {
+        int value = kind % KINDS_PER_SUIT;
+        int rank = value == 9 ? 0 : value + 1; // Ranks run from the ace, so the two is rank 1 and the ten rank 9
+        return kind / KINDS_PER_SUIT * 13 + rank;
+    }
+
+    /**
+     * The position at the start of a turn. Two states are equal when they hold the same kinds of cards in the
+     * same places, so the state can key the table of solved states. The draw counts follow from the other
+     * cards and are left out of the comparison.
+     */
+    private static final class State {
+        final int[] cards; // Cards of each hand, in the order they were received
+        final int[] suitValues; // Point total of each suit of each hand
+        final int[] pile; // Discard pile, bottom first
+        int pileSize;
+        final int[] drawCounts; // Number of cards of each kind in the draw deck
+        int drawTotal;
+        final int[] turnCounters;
+        int lastSeat; // Seat that played the last turn
+        int knockSeat; // Seat that knocked, or -1
+
+        State(int seats, int pileCapacity) {
+            cards = new int[seats * HAND];
+            suitValues = new int[seats * SUITS];
+            pile = new int[pileCapacity];
+            drawCounts = new int[KINDS];
+            turnCounters = new int[seats];
+        }
+
+        private State(State other) {
+            cards = other.cards.clone();
+            suitValues = other.suitValues.clone();
+            pile = other.pile.clone();
+            pileSize = other.pileSize;
+            drawCounts = other.drawCounts.clone();
+            drawTotal = other.drawTotal;
+            turnCounters = other.turnCounters.clone();
+            lastSeat = other.lastSeat;
+            knockSeat = other.knockSeat;
+        }
+
+        State copy() {
+            return new State(this);
+        }
+
+        /**
+         * Removes a card of a kind from the draw deck and returns the chance of drawing it.
+         */
+        double draw(int kind) {
+            double chance = (double) drawCounts[kind] / drawTotal;
+            drawCounts[kind]--;
+            drawTotal--;
+            return chance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State other)) {
+                return false;
+            }
+            return lastSeat == other.lastSeat && knockSeat == other.knockSeat && pileSize == other.pileSize
+                    && Arrays.equals(cards, other.cards) && Arrays.equals(turnCounters, other.turnCounters)
+                    && Arrays.equals(pile, 0, pileSize, other.pile, 0, pileSize);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Arrays.hashCode(cards);
+            hash = 31 * hash + Arrays.hashCode(turnCounters);
+            for (int i = 0; i < pileSize; i++) {
+                hash = 31 * hash + pile[i];
+            }
+            return 31 * (31 * hash + lastSeat) + knockSeat;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package edu.guilford.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import edu.guilford.ThirtyOneGame;
+import edu.guilford.playerModels.Group;
+
+/**
+ * The SimulationRunner class plays many independent games of Thirty-One in parallel
+ * and merges the number of wins for each seat once every game has finished, or plays a
+ * seeded {@link Campaign} into a {@link ResultAggregator} that can end the campaign early.
+ */
+public class SimulationRunner {
+
+    private final ExecutorService executor; // The executor that plays the games
+    private final int parallelism; // The number of batches the games are split into
+
+    /**
+     * Constructs a runner that plays games on the common fork-join pool.
+     */
+    public SimulationRunner() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Constructs a runner that plays games on the given executor.
+     *
+     * @param executor the executor that plays the games
+     * @param parallelism the number of batches to split a run into, usually the number of threads
+     * @throws IllegalArgumentException if the parallelism is less than 1
+     */
+    public SimulationRunner(ExecutorService executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Plays the given number of games and counts the wins of each seat.
+     * Each game is played on a fresh group created by the factory, so the factory
+     * must return a new group of new players every time it is called.
+     *
+     * @param groupFactory creates the group of players for one game
+     * @param games the number of games to play
+     * @return the number of wins for each seat, indexed from 0
+     * @throws IllegalArgumentException if the number of games is negative
+     */
+    public int[] run(Supplier<Group> groupFactory, int games) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Number of games cannot be negative.");
+        }
+        int seats = groupFactory.get().size();
+
+        // Split the games into one batch per worker
+        int batches = Math.max(1, Math.min(parallelism, games));
+        List<Callable<int[]>> tasks = new ArrayList<>(batches);
+        for (int i = 0; i < batches; i++) {
+            int batchGames = games / batches + (i < games % batches ? 1 : 0);
+            tasks.add(() -> playBatch(groupFactory, batchGames, seats));
+        }
+
+        // Merge the wins of every batch
+        int[] wins = new int[seats];
+        try {
+            for (Future<int[]> future : executor.invokeAll(tasks)) {
+                int[] batchWins = future.get();
+                for (int seat = 0; seat < seats; seat++) {
+                    wins[seat] += batchWins[seat];
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed.", e.getCause());
+        }
+        return wins;
+    }
+
+    /**
+     * Plays up to the given number of games as a {@link Campaign}: game {@code i} is played with seed
+     * {@code seed + i}, and results reach the aggregator in game order. Workers stop starting new games as
+     * soon as the aggregator's sequential test has decided, so the games it saw never favour the ones that
+     * finish quickly, and the same seed always gives the same results.
+     *
+     * @param groupFactory creates the group of players for one game
+     * @param maxGames the largest number of games to play
+     * @param seed the seed of the first game; each later game uses the next seed
+     * @param aggregator the aggregator that receives the results
+     * @return the aggregator
+     * @throws IllegalArgumentException if the number of games is negative
+     * @throws IllegalStateException if the run fails or is interrupted
+     */
+    public ResultAggregator run(Supplier<Group> groupFactory, int maxGames, long seed, ResultAggregator aggregator) {
+        if (maxGames < 0) {
+            throw new IllegalArgumentException("Number of games cannot be negative.");
+        }
+        return new Campaign(groupFactory, seed, aggregator, executor, parallelism).run(maxGames);
+    }
+
+    /**
+     * Plays a batch of games sequentially on the calling thread.
+     *
+     * @param groupFactory creates the group of players for one game
+     * @param games the number of games to play
+     * @param seats the number of seats at the table
+     * @return the number of wins for each seat in this batch
+     */
+    private static int[] playBatch(Supplier<Group> groupFactory, int games, int seats) {
+        int[] wins = new int[seats];
+        for (int i = 0; i < games; i++) {
+            Group group = groupFactory.get();
+            if (group.size() != seats) {
+                throw new IllegalArgumentException("Group factory must always create " + seats + " players.");
+            }
+            new ThirtyOneGame(group).playGame();
+
+            int winner = group.getWinner();
+            if (winner > 0) {
+                wins[winner - 1]++;
+            }
+        }
+        return wins;
+    }
+}